@@ -0,0 +1,57 @@
+package com.intern.userservice.benchmark;
+
+import com.intern.userservice.dto.CardInfoResponse;
+import com.intern.userservice.dto.UserResponse;
+import com.intern.userservice.model.CardInfo;
+import com.intern.userservice.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+final class BenchmarkData {
+
+    static final int PAGE_SIZE = 20;
+
+    private BenchmarkData() {
+    }
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .name("Alice")
+                .surname("Johnson")
+                .birthDate(LocalDate.of(1990, 4, 12))
+                .email("alice.johnson" + id + "@example.com")
+                .build();
+    }
+
+    static CardInfo card(long id) {
+        return CardInfo.builder()
+                .id(id)
+                .number("4111111111111111")
+                .holder("Alice Johnson")
+                .expirationDate(LocalDate.of(2030, 12, 31))
+                .user(User.builder().id(id).build())
+                .build();
+    }
+
+    static UserResponse userResponse(long id) {
+        return new UserResponse(id, "Alice", "Johnson", LocalDate.of(1990, 4, 12),
+                "alice.johnson" + id + "@example.com");
+    }
+
+    static CardInfoResponse cardResponse(long id) {
+        return new CardInfoResponse(id, "4111111111111111", "Alice Johnson", LocalDate.of(2030, 12, 31), id);
+    }
+
+    static Page<UserResponse> userPage() {
+        List<UserResponse> content = LongStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(BenchmarkData::userResponse)
+                .toList();
+        return new PageImpl<>(content, PageRequest.of(3, PAGE_SIZE), 10_000);
+    }
+}
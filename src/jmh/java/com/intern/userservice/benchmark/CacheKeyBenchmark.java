@@ -0,0 +1,76 @@
+package com.intern.userservice.benchmark;
+
+import com.intern.userservice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates the page cache key the way the cache interceptor does: a parsed expression is reused, but every call
+ * gets a fresh method-based evaluation context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private static final String PAGE_KEY = "#pageable.pageNumber + '-' + #pageable.pageSize";
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Pageable pageable = PageRequest.of(3, 20);
+
+    private Method method;
+    private Object[] arguments;
+    private Expression interpreted;
+    private Expression compiled;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        method = UserService.class.getMethod("getAllUsers", Pageable.class);
+        arguments = new Object[]{pageable};
+        interpreted = new SpelExpressionParser().parseExpression(PAGE_KEY);
+        compiled = new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null))
+                .parseExpression(PAGE_KEY);
+    }
+
+    @Benchmark
+    public Object spelInterpreted() {
+        return interpreted.getValue(newContext());
+    }
+
+    @Benchmark
+    public Object spelCompiled() {
+        return compiled.getValue(newContext());
+    }
+
+    @Benchmark
+    public Object plainConcatenation() {
+        return pageable.getPageNumber() + "-" + pageable.getPageSize();
+    }
+
+    private MethodBasedEvaluationContext newContext() {
+        return new MethodBasedEvaluationContext(null, method, arguments, parameterNameDiscoverer);
+    }
+}
@@ -0,0 +1,59 @@
+package com.intern.userservice.benchmark;
+
+import com.intern.userservice.cache.CompactCacheValueSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The value codec configured in {@code RedisCacheConfig}, against the JDK serializer it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueSerializerBenchmark {
+
+    @Param({"compact", "jdk"})
+    private String codec;
+
+    @Param({"user", "page"})
+    private String value;
+
+    private RedisSerializer<Object> serializer;
+    private Object cacheValue;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = codec.equals("compact")
+                ? new CompactCacheValueSerializer()
+                : new JdkSerializationRedisSerializer();
+        cacheValue = value.equals("user") ? BenchmarkData.userResponse(1L) : BenchmarkData.userPage();
+        encoded = serializer.serialize(cacheValue);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(cacheValue);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+}
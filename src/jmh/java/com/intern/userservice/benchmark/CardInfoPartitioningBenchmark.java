@@ -0,0 +1,175 @@
+package com.intern.userservice.benchmark;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The card queries of {@code CardInfoRepository} against a generated data set, with {@code card_info} in the default
+ * layout and hash-partitioned on {@code user_id}. Every trial migrates a fresh PostgreSQL container, so Docker is
+ * required; {@code -Djmh.args="CardInfoPartitioning -p users=1000000"} scales the data set up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardInfoPartitioningBenchmark {
+
+    private static final int CARDS_PER_USER = 4;
+    private static final int SAMPLED_CARD_IDS = 10_000;
+    // past the seeded users; explicit ids keep the generated range dense and known up front
+    private static final long FIRST_USER_ID = 1_000;
+
+    private static final String GENERATE_USERS =
+            "INSERT INTO users (id, name, surname, birth_date, email) " +
+            "SELECT " + FIRST_USER_ID + " + g, 'User', 'No' || g, DATE '1990-01-01', " +
+            "       'user' || g || '@bench.example.com' " +
+            "FROM generate_series(0, %d - 1) g";
+
+    // numbers are the user id and the card's position, so a lookup can name an existing card without a query
+    private static final String GENERATE_CARDS =
+            "INSERT INTO card_info (user_id, number, holder, expiration_date) " +
+            "SELECT u.id, lpad(u.id::text, 12, '0') || lpad(c::text, 4, '0'), 'Holder', DATE '2027-01-31' + c * 30 " +
+            "FROM users u CROSS JOIN generate_series(1, " + CARDS_PER_USER + ") c " +
+            "WHERE u.id >= " + FIRST_USER_ID;
+
+    private static final String SAMPLE_CARD_IDS =
+            "SELECT id FROM card_info ORDER BY random() LIMIT " + SAMPLED_CARD_IDS;
+
+    @Param({"plain", "hash"})
+    private String layout;
+
+    @Param({"250000"})
+    private int users;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private PreparedStatement cardsByUserId;
+    private PreparedStatement cardExists;
+    private PreparedStatement cardById;
+    private PreparedStatement createCard;
+    private long[] cardIds;
+    private long createdCards;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:18-alpine"));
+        postgres.start();
+
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+        liquibase.setChangeLog("classpath:liquibase/changelog/master.yaml");
+        liquibase.setChangeLogParameters(Map.of("card-info-partitioning", String.valueOf(layout.equals("hash"))));
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        connection = liquibase.getDataSource().getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(GENERATE_USERS.formatted(users));
+            statement.execute(GENERATE_CARDS);
+            statement.execute("VACUUM ANALYZE users");
+            statement.execute("VACUUM ANALYZE card_info");
+            try (ResultSet rs = statement.executeQuery(SAMPLE_CARD_IDS)) {
+                cardIds = new long[SAMPLED_CARD_IDS];
+                int i = 0;
+                while (rs.next()) {
+                    cardIds[i++] = rs.getLong(1);
+                }
+                cardIds = Arrays.copyOf(cardIds, i);
+            }
+        }
+
+        cardsByUserId = connection.prepareStatement("SELECT * FROM card_info WHERE user_id = ?");
+        cardExists = connection.prepareStatement(
+                "SELECT EXISTS (SELECT 1 FROM card_info WHERE user_id = ? AND number = ?)");
+        cardById = connection.prepareStatement("SELECT * FROM card_info WHERE id = ?");
+        createCard = connection.prepareStatement(
+                "INSERT INTO card_info (number, holder, expiration_date, user_id) " +
+                "VALUES (?, 'Holder', DATE '2030-12-31', ?) " +
+                "ON CONFLICT (user_id, number) DO NOTHING " +
+                "RETURNING *");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public int getCardInfosByUserId() throws SQLException {
+        cardsByUserId.setLong(1, randomUserId());
+        return count(cardsByUserId);
+    }
+
+    @Benchmark
+    public int existsCardInfoByUserIdAndNumber() throws SQLException {
+        long userId = randomUserId();
+        cardExists.setLong(1, userId);
+        cardExists.setString(2, number(userId, ThreadLocalRandom.current().nextInt(1, CARDS_PER_USER + 1)));
+        return count(cardExists);
+    }
+
+    /**
+     * Not prunable: the id alone does not say which partition holds the card.
+     */
+    @Benchmark
+    public int findByIdNative() throws SQLException {
+        cardById.setLong(1, cardIds[ThreadLocalRandom.current().nextInt(cardIds.length)]);
+        return count(cardById);
+    }
+
+    @Benchmark
+    public int createCardNative() throws SQLException {
+        long userId = randomUserId();
+        createCard.setString(1, number(userId, CARDS_PER_USER + 1 + (int) (createdCards++ % 9_000)));
+        createCard.setLong(2, userId);
+        return count(createCard);
+    }
+
+    private long randomUserId() {
+        return FIRST_USER_ID + ThreadLocalRandom.current().nextLong(users);
+    }
+
+    private static String number(long userId, int position) {
+        return "%012d%04d".formatted(userId, position);
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
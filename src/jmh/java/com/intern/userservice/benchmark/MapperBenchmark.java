@@ -0,0 +1,45 @@
+package com.intern.userservice.benchmark;
+
+import com.intern.userservice.dto.CardInfoResponse;
+import com.intern.userservice.dto.UserResponse;
+import com.intern.userservice.mapper.CardInfoMapper;
+import com.intern.userservice.mapper.UserMapper;
+import com.intern.userservice.model.CardInfo;
+import com.intern.userservice.model.User;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+    private final CardInfoMapper cardInfoMapper = Mappers.getMapper(CardInfoMapper.class);
+
+    private final User user = BenchmarkData.user(1L);
+    private final CardInfo card = BenchmarkData.card(1L);
+
+    @Benchmark
+    public UserResponse toUserResponse() {
+        return userMapper.toUserResponse(user);
+    }
+
+    @Benchmark
+    public CardInfoResponse toCardInfoResponse() {
+        return cardInfoMapper.toCardInfoResponse(card);
+    }
+}
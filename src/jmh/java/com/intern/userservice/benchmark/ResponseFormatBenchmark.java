@@ -0,0 +1,61 @@
+package com.intern.userservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.intern.userservice.dto.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON and CBOR bodies of {@code GET /api/users}, written by the server and parsed by a calling service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    private final Page<UserResponse> page = BenchmarkData.userPage();
+
+    private ObjectMapper objectMapper;
+    private byte[] content;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = format.equals("cbor")
+                ? new Jackson2ObjectMapperBuilder().factory(new CBORFactory()).build()
+                : new Jackson2ObjectMapperBuilder().build();
+        content = objectMapper.writeValueAsBytes(page.getContent());
+    }
+
+    @Benchmark
+    public byte[] writeUserPage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<UserResponse> readUsers() throws IOException {
+        return objectMapper.readValue(content,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, UserResponse.class));
+    }
+}
@@ -0,0 +1,178 @@
+package com.intern.userservice.benchmark;
+
+import com.intern.userservice.config.ConcurrencyLimitedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bursts of requests handled the three ways the service can run them: Tomcat's default pool of 200 platform threads,
+ * a virtual thread per request, and virtual threads behind {@link ConcurrencyLimitedDataSource} as in the
+ * {@code virtual} profile. Each request waits for a cache round trip and, on a miss, holds a connection for a query.
+ * The pool is a real HikariCP pool over stub connections, so only the database and Redis latencies are simulated;
+ * {@code served} and {@code failed} count requests per second, a failure being a connection timeout. A burst that
+ * queues longer than the pool's timeout shows what the limit is for:
+ * {@code -Djmh.args="ThreadingModel -p burst=10000 -p connectionTimeoutMillis=250"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ThreadingModelBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final Duration LIMIT_ACQUIRE_TIMEOUT = Duration.ofSeconds(30);
+
+    @Param({"platform", "virtual", "virtual-limited"})
+    public String mode;
+
+    @Param({"2000"})
+    public int burst;
+
+    @Param({"0.9", "0.99"})
+    public double cacheHitRatio;
+
+    @Param({"1"})
+    public int cacheMillis;
+
+    @Param({"5"})
+    public int queryMillis;
+
+    @Param({"10"})
+    public int poolSize;
+
+    // Spring Boot's default
+    @Param({"30000"})
+    public long connectionTimeoutMillis;
+
+    private HikariDataSource pool;
+    private DataSource dataSource;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new HikariDataSource();
+        pool.setDataSource(new StubDataSource());
+        pool.setPoolName("benchmark");
+        pool.setMaximumPoolSize(poolSize);
+        pool.setMinimumIdle(poolSize);
+        pool.setConnectionTimeout(connectionTimeoutMillis);
+
+        dataSource = mode.equals("virtual-limited")
+                ? new ConcurrencyLimitedDataSource(pool, poolSize, LIMIT_ACQUIRE_TIMEOUT)
+                : pool;
+        executor = mode.equals("platform")
+                ? Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)
+                : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        pool.close();
+    }
+
+    @Benchmark
+    public void requests(Outcome outcome) throws InterruptedException {
+        LongAdder served = new LongAdder();
+        LongAdder failed = new LongAdder();
+        CountDownLatch done = new CountDownLatch(burst);
+        for (int i = 0; i < burst; i++) {
+            boolean cacheHit = ThreadLocalRandom.current().nextDouble() < cacheHitRatio;
+            executor.execute(() -> {
+                try {
+                    handle(cacheHit);
+                    served.increment();
+                } catch (SQLException e) {
+                    failed.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        outcome.served += served.sum();
+        outcome.failed += failed.sum();
+    }
+
+    private void handle(boolean cacheHit) throws SQLException, InterruptedException {
+        Thread.sleep(cacheMillis);
+        if (cacheHit) {
+            return;
+        }
+        try (Connection ignored = dataSource.getConnection()) {
+            Thread.sleep(queryMillis);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcome {
+
+        public long served;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            served = 0;
+            failed = 0;
+        }
+    }
+
+    /**
+     * Hands out connections that accept whatever HikariCP asks of them.
+     */
+    private static class StubDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "isValid", "getAutoCommit" -> true;
+                        case "isClosed", "isReadOnly", "isWrapperFor" -> false;
+                        case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+                        case "getNetworkTimeout", "hashCode" -> 0;
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "stub connection";
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+    }
+}
@@ -3,13 +3,15 @@ package com.intern.userservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 
 import static org.springframework.data.web.config.EnableSpringDataWebSupport.PageSerializationMode.VIA_DTO;
 
 @SpringBootApplication
 @EnableSpringDataWebSupport(pageSerializationMode = VIA_DTO)
-@EnableCaching
+// outside the transaction interceptor, so that a cache hit never opens a transaction; a miss reads from the primary
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class UserServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,143 @@
+package com.intern.userservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects cache writes across one or more caches and sends them to Redis as a single pipeline.
+ * Caches that cannot take part in a pipeline are written one operation at a time, as are clears.
+ * <p>
+ * A failing step is logged and skipped rather than thrown: by the time a batch runs the data has usually been
+ * committed, and the entries it could not write are left to their TTL.
+ */
+@Slf4j
+public class CacheBatch {
+
+    private final CacheManager cacheManager;
+    private final RedisConnectionFactory connectionFactory;
+    private final List<Operation> operations = new ArrayList<>();
+
+    CacheBatch(CacheManager cacheManager, RedisConnectionFactory connectionFactory) {
+        this.cacheManager = cacheManager;
+        this.connectionFactory = connectionFactory;
+    }
+
+    public CacheBatch put(String cacheName, Object key, Object value) {
+        operations.add(new Operation(Kind.PUT, cacheName, key, value));
+        return this;
+    }
+
+    public CacheBatch putAll(String cacheName, Map<?, ?> entries) {
+        entries.forEach((key, value) -> put(cacheName, key, value));
+        return this;
+    }
+
+    public CacheBatch evict(String cacheName, Object key) {
+        operations.add(new Operation(Kind.EVICT, cacheName, key, null));
+        return this;
+    }
+
+    public CacheBatch clear(String cacheName) {
+        operations.add(new Operation(Kind.CLEAR, cacheName, null, null));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Defers the batch until the surrounding transaction has committed and drops it on rollback, so the cache
+     * never sees a value that was not committed and no Redis round trip is made while the transaction is open.
+     * Without an active transaction the batch is executed right away.
+     */
+    public void executeAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            execute();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                execute();
+            }
+        });
+    }
+
+    public void execute() {
+        if (operations.isEmpty()) {
+            return;
+        }
+        List<Operation> pending = List.copyOf(operations);
+        operations.clear();
+        List<Operation> pipelined = new ArrayList<>(pending.size());
+        List<Operation> clears = new ArrayList<>();
+        for (Operation operation : pending) {
+            Cache cache = cacheManager.getCache(operation.cacheName());
+            if (operation.kind() == Kind.CLEAR) {
+                clears.add(operation);
+            } else if (cache instanceof PipelinedCache) {
+                pipelined.add(operation);
+            } else if (cache != null) {
+                applySafely(operation, cache);
+            }
+        }
+        if (!pipelined.isEmpty()) {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.openPipeline();
+                for (Operation operation : pipelined) {
+                    operation.applyTo((PipelinedCache) cacheManager.getCache(operation.cacheName()), connection);
+                }
+                connection.closePipeline();
+            } catch (RuntimeException e) {
+                log.warn("Cache pipeline of {} operations failed", pipelined.size(), e);
+            }
+        }
+        for (Operation operation : clears) {
+            Cache cache = cacheManager.getCache(operation.cacheName());
+            if (cache != null) {
+                applySafely(operation, cache);
+            }
+        }
+    }
+
+    private static void applySafely(Operation operation, Cache cache) {
+        try {
+            operation.applyTo(cache);
+        } catch (RuntimeException e) {
+            log.warn("Cache {} of {} in {} failed", operation.kind(), operation.key(), operation.cacheName(), e);
+        }
+    }
+
+    private enum Kind {
+        PUT, EVICT, CLEAR
+    }
+
+    private record Operation(Kind kind, String cacheName, Object key, Object value) {
+
+        void applyTo(Cache cache) {
+            switch (kind) {
+                case PUT -> cache.put(key, value);
+                case EVICT -> cache.evict(key);
+                case CLEAR -> cache.clear();
+            }
+        }
+
+        void applyTo(PipelinedCache cache, RedisConnection connection) {
+            if (kind == Kind.EVICT) {
+                cache.evict(connection, key);
+            } else {
+                cache.put(connection, key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.intern.userservice.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+public class CacheBatchReader {
+
+    private final CacheManager cacheManager;
+    private final RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    public CacheBatchReader(CacheManager cacheManager, RedisConnectionFactory connectionFactory) {
+        this.cacheManager = cacheManager;
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Looks up all {@code keys} in one round trip where the cache supports it. Keys without an entry are absent
+     * from the result; keys cached as {@code null} map to a wrapper holding {@code null}.
+     */
+    public <K> Map<K, ValueWrapper> getAll(String cacheName, Collection<K> keys) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || keys.isEmpty()) {
+            return Map.of();
+        }
+        if (cache instanceof PipelinedCache pipelined) {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                return pipelined.getAll(connection, keys);
+            }
+        }
+        Map<K, ValueWrapper> hits = new HashMap<>();
+        for (K key : keys) {
+            ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null) {
+                hits.put(key, wrapper);
+            }
+        }
+        return hits;
+    }
+}
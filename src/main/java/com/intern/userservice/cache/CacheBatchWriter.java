@@ -0,0 +1,23 @@
+package com.intern.userservice.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CacheBatchWriter {
+
+    private final CacheManager cacheManager;
+    private final RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    public CacheBatchWriter(CacheManager cacheManager, RedisConnectionFactory connectionFactory) {
+        this.cacheManager = cacheManager;
+        this.connectionFactory = connectionFactory;
+    }
+
+    public CacheBatch newBatch() {
+        return new CacheBatch(cacheManager, connectionFactory);
+    }
+}
@@ -0,0 +1,36 @@
+package com.intern.userservice.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity tags for responses that are served from a cache, see {@link EntityTagCache}.
+ */
+@Component
+public class CacheEntityTags {
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public CacheEntityTags(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Returns the entry under {@code key} with its entity tag, or {@code null} when there is none and the value has
+     * to be loaded.
+     */
+    public EntityTaggedValue find(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        return cache instanceof EntityTagCache tagged ? tagged.getTagged(key) : null;
+    }
+
+    /**
+     * Returns the entity tag of a freshly loaded value; it matches the one the cache stores for the same value.
+     */
+    public String of(Object value) {
+        return EntityTagCache.entityTagOf(value);
+    }
+}
@@ -0,0 +1,59 @@
+package com.intern.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.intern.userservice.config.CacheGenerationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-cache generation counters kept in Redis. Each instance holds the last value it saw for a short while and
+ * drops it as soon as another instance announces a bump.
+ */
+@Component
+public class CacheGenerations implements MessageListener {
+
+    private static final String KEY_PREFIX = "generation:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationPublisher publisher;
+    private final LoadingCache<String, Long> current;
+
+    @Autowired
+    public CacheGenerations(StringRedisTemplate redisTemplate,
+                            CacheInvalidationPublisher publisher,
+                            CacheGenerationProperties cacheGenerationProperties) {
+        this.redisTemplate = redisTemplate;
+        this.publisher = publisher;
+        this.current = Caffeine.newBuilder()
+                .expireAfterWrite(cacheGenerationProperties.getRefresh())
+                .build(this::read);
+    }
+
+    public long current(String cacheName) {
+        return current.get(cacheName);
+    }
+
+    public long bump(String cacheName) {
+        Long generation = redisTemplate.opsForValue().increment(KEY_PREFIX + cacheName);
+        current.put(cacheName, generation);
+        publisher.publish(cacheName, null);
+        return generation;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation = publisher.readRemote(message);
+        if (invalidation != null && invalidation.key() == null) {
+            current.invalidate(invalidation.cacheName());
+        }
+    }
+
+    private long read(String cacheName) {
+        String generation = redisTemplate.opsForValue().get(KEY_PREFIX + cacheName);
+        return generation != null ? Long.parseLong(generation) : 0L;
+    }
+}
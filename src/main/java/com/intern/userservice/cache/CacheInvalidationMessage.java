@@ -0,0 +1,13 @@
+package com.intern.userservice.cache;
+
+import java.io.Serializable;
+
+/**
+ * Broadcast to all instances when a cache entry changes. A {@code null} key means the whole cache was cleared.
+ */
+public record CacheInvalidationMessage(
+        String origin,
+        String cacheName,
+        Object key
+) implements Serializable {
+}
@@ -0,0 +1,53 @@
+package com.intern.userservice.cache;
+
+import com.intern.userservice.config.NearCacheProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Component
+public class CacheInvalidationPublisher {
+
+    private final RedisTemplate<Object, Object> redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    public CacheInvalidationPublisher(RedisTemplate<Object, Object> redisTemplate,
+                                      NearCacheProperties nearCacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.channel = nearCacheProperties.getInvalidationChannel();
+    }
+
+    public void publish(String cacheName, Object key) {
+        redisTemplate.convertAndSend(channel, new CacheInvalidationMessage(nodeId, cacheName, key));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void publish(RedisConnection connection, String cacheName, Object key) {
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        connection.publish(
+                redisTemplate.getStringSerializer().serialize(channel),
+                serializer.serialize(new CacheInvalidationMessage(nodeId, cacheName, key)));
+    }
+
+    /**
+     * Returns the message if it was sent by another instance, {@code null} for our own broadcasts.
+     */
+    public CacheInvalidationMessage readRemote(Message message) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (body instanceof CacheInvalidationMessage invalidation && !nodeId.equals(invalidation.origin())) {
+            return invalidation;
+        }
+        return null;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+}
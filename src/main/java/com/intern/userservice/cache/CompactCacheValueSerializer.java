@@ -0,0 +1,381 @@
+package com.intern.userservice.cache;
+
+import com.intern.userservice.dto.CardInfoResponse;
+import com.intern.userservice.dto.UserResponse;
+import com.intern.userservice.dto.UserWithCardsResponse;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Schema-aware binary encoding for the values we keep in Redis.
+ * <p>
+ * Layout: {@code [format version][type tag][payload]}. Numbers are zig-zag varints, dates are epoch-day varints
+ * and strings are length-prefixed UTF-8; each record starts with a bitmask of its non-null fields. Types we do not
+ * know are written with the JDK serializer under their own tag. Entries written by the plain JDK serializer (before
+ * this codec was introduced) are still readable, and entries with an unknown format version are treated as cache
+ * misses so that instances running different versions can share Redis during a rolling deploy.
+ * <p>
+ * An {@link EntityTaggedValue} is written as {@code [tagged format version][entity tag][type tag][payload]}, under
+ * its own version so that instances which do not know entity tags take it for a miss rather than an error.
+ */
+public class CompactCacheValueSerializer implements RedisSerializer<Object> {
+
+    public static final byte FORMAT_VERSION = 1;
+    public static final byte TAGGED_FORMAT_VERSION = 2;
+
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+    private static final byte TAG_JDK = 0;
+    private static final byte TAG_NULL = 1;
+    private static final byte TAG_USER = 2;
+    private static final byte TAG_CARD = 3;
+    private static final byte TAG_LIST = 4;
+    private static final byte TAG_PAGE = 5;
+    private static final byte TAG_SLICE = 6;
+    private static final byte TAG_USER_WITH_CARDS = 7;
+
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        Output out = new Output();
+        if (value instanceof EntityTaggedValue tagged) {
+            out.writeByte(TAGGED_FORMAT_VERSION);
+            writeString(out, tagged.entityTag());
+            writeValue(out, tagged.value());
+        } else {
+            out.writeByte(FORMAT_VERSION);
+            writeValue(out, value);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == JDK_STREAM_MAGIC) {
+            return jdkSerializer.deserialize(bytes);
+        }
+        if (bytes[0] != FORMAT_VERSION && bytes[0] != TAGGED_FORMAT_VERSION) {
+            return null;
+        }
+        try {
+            Input in = new Input(bytes, 1);
+            if (bytes[0] == TAGGED_FORMAT_VERSION) {
+                String entityTag = readString(in);
+                return new EntityTaggedValue(readValue(in), entityTag);
+            }
+            return readValue(in);
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated cache value", e);
+        }
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value instanceof NullValue) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof UserResponse user) {
+            out.writeByte(TAG_USER);
+            writeUser(out, user);
+        } else if (value instanceof UserWithCardsResponse user) {
+            out.writeByte(TAG_USER_WITH_CARDS);
+            writeUserWithCards(out, user);
+        } else if (value instanceof CardInfoResponse card) {
+            out.writeByte(TAG_CARD);
+            writeCard(out, card);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TAG_LIST);
+            writeList(out, list);
+        } else if (value instanceof Page<?> page) {
+            out.writeByte(TAG_PAGE);
+            writePage(out, page);
+        } else if (value instanceof Slice<?> slice) {
+            out.writeByte(TAG_SLICE);
+            writeSlice(out, slice);
+        } else {
+            out.writeByte(TAG_JDK);
+            byte[] jdk = jdkSerializer.serialize(value);
+            writeVarLong(out, jdk.length);
+            out.write(jdk);
+        }
+    }
+
+    private Object readValue(Input in) {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case TAG_NULL -> NullValue.INSTANCE;
+            case TAG_USER -> readUser(in);
+            case TAG_CARD -> readCard(in);
+            case TAG_LIST -> readList(in);
+            case TAG_PAGE -> readPage(in);
+            case TAG_SLICE -> readSlice(in);
+            case TAG_USER_WITH_CARDS -> readUserWithCards(in);
+            case TAG_JDK -> jdkSerializer.deserialize(in.readBytes((int) readVarLong(in)));
+            default -> throw new SerializationException("Unknown cache value tag " + tag);
+        };
+    }
+
+    private void writeUser(Output out, UserResponse user) {
+        out.writeByte(presence(user.id(), user.name(), user.surname(), user.birthDate(), user.email()));
+        writeNullableLong(out, user.id());
+        writeNullableString(out, user.name());
+        writeNullableString(out, user.surname());
+        writeNullableDate(out, user.birthDate());
+        writeNullableString(out, user.email());
+    }
+
+    private UserResponse readUser(Input in) {
+        int presence = in.readByte() & 0xFF;
+        return new UserResponse(
+                (presence & 1) != 0 ? readVarLong(in) : null,
+                (presence & 2) != 0 ? readString(in) : null,
+                (presence & 4) != 0 ? readString(in) : null,
+                (presence & 8) != 0 ? LocalDate.ofEpochDay(readVarLong(in)) : null,
+                (presence & 16) != 0 ? readString(in) : null
+        );
+    }
+
+    private void writeUserWithCards(Output out, UserWithCardsResponse user) {
+        writeUser(out, new UserResponse(user.id(), user.name(), user.surname(), user.birthDate(), user.email()));
+        writeVarLong(out, user.cards().size());
+        for (CardInfoResponse card : user.cards()) {
+            writeCard(out, card);
+        }
+    }
+
+    private UserWithCardsResponse readUserWithCards(Input in) {
+        UserResponse user = readUser(in);
+        int size = (int) readVarLong(in);
+        List<CardInfoResponse> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(readCard(in));
+        }
+        return new UserWithCardsResponse(
+                user.id(), user.name(), user.surname(), user.birthDate(), user.email(), List.copyOf(cards));
+    }
+
+    private void writeCard(Output out, CardInfoResponse card) {
+        out.writeByte(presence(card.id(), card.number(), card.holder(), card.expirationDate(), card.userId()));
+        writeNullableLong(out, card.id());
+        writeNullableString(out, card.number());
+        writeNullableString(out, card.holder());
+        writeNullableDate(out, card.expirationDate());
+        writeNullableLong(out, card.userId());
+    }
+
+    private CardInfoResponse readCard(Input in) {
+        int presence = in.readByte() & 0xFF;
+        return new CardInfoResponse(
+                (presence & 1) != 0 ? readVarLong(in) : null,
+                (presence & 2) != 0 ? readString(in) : null,
+                (presence & 4) != 0 ? readString(in) : null,
+                (presence & 8) != 0 ? LocalDate.ofEpochDay(readVarLong(in)) : null,
+                (presence & 16) != 0 ? readVarLong(in) : null
+        );
+    }
+
+    private void writeList(Output out, List<?> list) {
+        writeVarLong(out, list.size());
+        for (Object element : list) {
+            writeValue(out, element);
+        }
+    }
+
+    private List<Object> readList(Input in) {
+        int size = (int) readVarLong(in);
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readValue(in));
+        }
+        return list;
+    }
+
+    private void writePage(Output out, Page<?> page) {
+        writePageable(out, page.getPageable(), page.getSort());
+        writeVarLong(out, page.getTotalElements());
+        writeList(out, page.getContent());
+    }
+
+    private Page<Object> readPage(Input in) {
+        Pageable pageable = readPageable(in);
+        long total = readVarLong(in);
+        return new PageImpl<>(readList(in), pageable, total);
+    }
+
+    private void writeSlice(Output out, Slice<?> slice) {
+        writePageable(out, slice.getPageable(), slice.getSort());
+        out.writeBoolean(slice.hasNext());
+        writeList(out, slice.getContent());
+    }
+
+    private Slice<Object> readSlice(Input in) {
+        Pageable pageable = readPageable(in);
+        boolean hasNext = in.readBoolean();
+        return new SliceImpl<>(readList(in), pageable, hasNext);
+    }
+
+    private void writePageable(Output out, Pageable pageable, Sort sort) {
+        out.writeBoolean(pageable.isPaged());
+        if (pageable.isPaged()) {
+            writeVarLong(out, pageable.getPageNumber());
+            writeVarLong(out, pageable.getPageSize());
+        }
+        List<Sort.Order> orders = sort.toList();
+        writeVarLong(out, orders.size());
+        for (Sort.Order order : orders) {
+            writeString(out, order.getProperty());
+            out.writeBoolean(order.isAscending());
+        }
+    }
+
+    private Pageable readPageable(Input in) {
+        boolean paged = in.readBoolean();
+        int number = paged ? (int) readVarLong(in) : 0;
+        int size = paged ? (int) readVarLong(in) : 0;
+        int orderCount = (int) readVarLong(in);
+        List<Sort.Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            String property = readString(in);
+            orders.add(in.readBoolean() ? Sort.Order.asc(property) : Sort.Order.desc(property));
+        }
+        return paged ? PageRequest.of(number, size, Sort.by(orders)) : Pageable.unpaged(Sort.by(orders));
+    }
+
+    private static int presence(Object... fields) {
+        int mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private static void writeNullableLong(Output out, Long value) {
+        if (value != null) {
+            writeVarLong(out, value);
+        }
+    }
+
+    private static void writeNullableString(Output out, String value) {
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static void writeNullableDate(Output out, LocalDate value) {
+        if (value != null) {
+            writeVarLong(out, value.toEpochDay());
+        }
+    }
+
+    private static void writeString(Output out, String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(Input in) {
+        return new String(in.readBytes((int) readVarLong(in)), StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(Output out, long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.writeByte((int) zigZag);
+    }
+
+    private static long readVarLong(Input in) {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new SerializationException("Malformed varint in cache value");
+    }
+
+    private static final class Output {
+
+        private byte[] buffer = new byte[64];
+        private int position;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void write(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int offset) {
+            this.buffer = buffer;
+            this.position = offset;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        byte[] readBytes(int length) {
+            if (length < 0 || position + length > buffer.length) {
+                throw new IndexOutOfBoundsException(position + length);
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+    }
+}
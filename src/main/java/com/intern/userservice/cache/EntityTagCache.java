@@ -0,0 +1,164 @@
+package com.intern.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.util.DigestUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Stores every value together with an entity tag, an MD5 hash of its cache encoding, so that {@link #getTagged}
+ * hands out both from one cache read and a request served from the cache needs no fresh hash. Value and tag share
+ * one entry, so every put, eviction and expiry moves them together and the tag can never describe a different
+ * value. Other readers see the plain value; entries written without a tag are served as they are.
+ */
+public class EntityTagCache implements PipelinedCache {
+
+    private static final CompactCacheValueSerializer SERIALIZER = new CompactCacheValueSerializer();
+
+    private final Cache delegate;
+
+    public EntityTagCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * The unquoted strong entity tag of {@code value}, the same one the cache stores with it.
+     */
+    public static String entityTagOf(Object value) {
+        return DigestUtils.md5DigestAsHex(SERIALIZER.serialize(value));
+    }
+
+    /**
+     * Returns the value stored under {@code key} together with its entity tag, or {@code null} if there is no entry
+     * or it holds no tag.
+     */
+    public EntityTaggedValue getTagged(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        return wrapper != null && wrapper.get() instanceof EntityTaggedValue tagged ? tagged : null;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return untag(delegate.get(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) untag(delegate.get(key, () -> tag(valueLoader.call())));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, tag(value));
+    }
+
+    @Override
+    public void put(RedisConnection connection, Object key, Object value) {
+        if (delegate instanceof PipelinedCache pipelined) {
+            pipelined.put(connection, key, tag(value));
+        } else {
+            delegate.put(key, tag(value));
+        }
+    }
+
+    @Override
+    public <K> Map<K, ValueWrapper> getAll(RedisConnection connection, Collection<K> keys) {
+        Map<K, ValueWrapper> hits = new HashMap<>();
+        if (delegate instanceof PipelinedCache pipelined) {
+            pipelined.getAll(connection, keys).forEach((key, wrapper) -> hits.put(key, untag(wrapper)));
+        } else {
+            for (K key : keys) {
+                ValueWrapper wrapper = get(key);
+                if (wrapper != null) {
+                    hits.put(key, wrapper);
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return untag(delegate.putIfAbsent(key, tag(value)));
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public void evict(RedisConnection connection, Object key) {
+        if (delegate instanceof PipelinedCache pipelined) {
+            pipelined.evict(connection, key);
+        } else {
+            delegate.evict(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    private static Object tag(Object value) {
+        if (value == null || value instanceof NullValue) {
+            return value;
+        }
+        return new EntityTaggedValue(value, entityTagOf(value));
+    }
+
+    private static Object untag(Object value) {
+        return value instanceof EntityTaggedValue tagged ? tagged.value() : value;
+    }
+
+    private static ValueWrapper untag(ValueWrapper wrapper) {
+        if (wrapper == null || !(wrapper.get() instanceof EntityTaggedValue tagged)) {
+            return wrapper;
+        }
+        return new SimpleValueWrapper(tagged.value());
+    }
+}
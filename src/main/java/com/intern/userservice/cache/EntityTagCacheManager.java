@@ -0,0 +1,46 @@
+package com.intern.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class EntityTagCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final Set<String> taggedCacheNames;
+    private final ConcurrentMap<String, EntityTagCache> caches = new ConcurrentHashMap<>();
+
+    public EntityTagCacheManager(CacheManager delegate, Set<String> taggedCacheNames) {
+        this.delegate = delegate;
+        this.taggedCacheNames = Set.copyOf(taggedCacheNames);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!taggedCacheNames.contains(name)) {
+            return delegate.getCache(name);
+        }
+        EntityTagCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new EntityTagCache(target));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,7 @@
+package com.intern.userservice.cache;
+
+/**
+ * A cached value stored together with the strong validator computed when it was written.
+ */
+public record EntityTaggedValue(Object value, String entityTag) {
+}
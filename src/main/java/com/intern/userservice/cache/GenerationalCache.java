@@ -0,0 +1,85 @@
+package com.intern.userservice.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Stamps every key with the cache's current generation, so {@link #clear()} is a single counter bump instead of
+ * a scan and delete over the whole namespace. Entries of older generations are unreachable and expire by TTL;
+ * a value loaded while the generation moves on is stored under the old stamp and never served.
+ */
+public class GenerationalCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheGenerations generations;
+
+    public GenerationalCache(Cache delegate, CacheGenerations generations) {
+        this.delegate = delegate;
+        this.generations = generations;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(stamp(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(stamp(key), type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(stamp(key), valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(stamp(key), value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(stamp(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(stamp(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(stamp(key));
+    }
+
+    @Override
+    public void clear() {
+        generations.bump(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        generations.bump(getName());
+        return true;
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    private String stamp(Object key) {
+        return generations.current(getName()) + ":" + key;
+    }
+}
@@ -0,0 +1,50 @@
+package com.intern.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class GenerationalCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CacheGenerations generations;
+    private final Set<String> generationalCacheNames;
+    private final ConcurrentMap<String, GenerationalCache> caches = new ConcurrentHashMap<>();
+
+    public GenerationalCacheManager(CacheManager delegate,
+                                    CacheGenerations generations,
+                                    Set<String> generationalCacheNames) {
+        this.delegate = delegate;
+        this.generations = generations;
+        this.generationalCacheNames = Set.copyOf(generationalCacheNames);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!generationalCacheNames.contains(name)) {
+            return delegate.getCache(name);
+        }
+        GenerationalCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new GenerationalCache(target, generations));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+}
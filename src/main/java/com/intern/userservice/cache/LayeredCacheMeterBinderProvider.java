@@ -0,0 +1,28 @@
+package com.intern.userservice.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+
+/**
+ * Looks through the {@link EntityTagCache} and {@link GenerationalCache} wrappers, which Boot's own providers do not
+ * know, and binds the meters of the cache underneath.
+ */
+public class LayeredCacheMeterBinderProvider implements CacheMeterBinderProvider<Cache> {
+
+    @Override
+    public MeterBinder getMeterBinder(Cache cache, Iterable<Tag> tags) {
+        Cache target = cache instanceof EntityTagCache tagged ? tagged.getDelegate() : cache;
+        target = target instanceof GenerationalCache generational ? generational.getDelegate() : target;
+        if (target instanceof TwoTierCache twoTier) {
+            return new TwoTierCacheMetrics(twoTier, tags);
+        }
+        if (target instanceof RedisCache redis) {
+            return new RedisCacheMetrics(redis, tags);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.intern.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.RedisConnection;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A cache whose commands can be issued on a Redis connection owned by the caller, so that writes to several keys
+ * and caches reach Redis in a single pipeline and reads of several keys in a single MGET.
+ */
+public interface PipelinedCache extends Cache {
+
+    void put(RedisConnection connection, Object key, Object value);
+
+    void evict(RedisConnection connection, Object key);
+
+    /**
+     * Returns the entries found for {@code keys}; keys without an entry are absent from the result.
+     */
+    <K> Map<K, ValueWrapper> getAll(RedisConnection connection, Collection<K> keys);
+}
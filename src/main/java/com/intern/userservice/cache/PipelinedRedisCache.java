@@ -0,0 +1,119 @@
+package com.intern.userservice.cache;
+
+import com.intern.userservice.config.ReplicaRoutingDataSource;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+public class PipelinedRedisCache extends RedisCache implements PipelinedCache {
+
+    private final SingleFlight loads = new SingleFlight();
+    private final RedisLoadLock loadLock;
+    private final CacheStatisticsCollector statistics;
+
+    /**
+     * @param statistics the collector the cache writer reports to, so that commands queued on a pipeline by
+     *                   {@link PipelinedCache} show up in {@link #getStatistics()} like the writer's own
+     */
+    public PipelinedRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfiguration,
+                               RedisLoadLock loadLock, CacheStatisticsCollector statistics) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.loadLock = loadLock;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Unlike {@link RedisCache#get(Object, Callable)}, which serializes every miss of the cache behind one lock,
+     * concurrent misses are coalesced per key, and across instances as well when a {@link RedisLoadLock} is set.
+     * Misses are loaded from the primary: a value read from a lagging replica would outlive the lag by the whole
+     * TTL, and a coalesced load is shared with threads that have to see their own writes.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        String cacheKey = createCacheKey(key);
+        return loads.execute(cacheKey, () -> load(key, cacheKey, valueLoader));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Object key, String cacheKey, Callable<T> valueLoader) {
+        // The previous flight may have completed between our miss and joining the map.
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        String token = loadLock != null ? loadLock.tryAcquire(cacheKey) : null;
+        if (loadLock != null && token == null) {
+            wrapper = loadLock.await(() -> get(key));
+            if (wrapper != null) {
+                return (T) wrapper.get();
+            }
+        }
+        try {
+            T value = ReplicaRoutingDataSource.onPrimary(() -> loadCacheValue(key, valueLoader));
+            put(key, value);
+            return value;
+        } finally {
+            if (token != null) {
+                loadLock.release(cacheKey, token);
+            }
+        }
+    }
+
+    @Override
+    public void put(RedisConnection connection, Object key, Object value) {
+        Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        Expiration expiration = ttl != null && !ttl.isZero() && !ttl.isNegative()
+                ? Expiration.from(ttl)
+                : Expiration.persistent();
+        connection.stringCommands().set(
+                serializeCacheKey(createCacheKey(key)),
+                serializeCacheValue(preProcessCacheValue(value)),
+                expiration,
+                SetOption.upsert());
+        statistics.incPuts(getName());
+    }
+
+    @Override
+    public void evict(RedisConnection connection, Object key) {
+        connection.keyCommands().del(serializeCacheKey(createCacheKey(key)));
+        statistics.incDeletes(getName());
+    }
+
+    @Override
+    public <K> Map<K, ValueWrapper> getAll(RedisConnection connection, Collection<K> keys) {
+        List<K> requested = List.copyOf(keys);
+        byte[][] binaryKeys = requested.stream()
+                .map(key -> serializeCacheKey(createCacheKey(key)))
+                .toArray(byte[][]::new);
+        List<byte[]> values = connection.stringCommands().mGet(binaryKeys);
+
+        Map<K, ValueWrapper> hits = new HashMap<>();
+        for (int i = 0; i < requested.size(); i++) {
+            byte[] value = values != null ? values.get(i) : null;
+            statistics.incGets(getName());
+            if (value != null) {
+                statistics.incHits(getName());
+                hits.put(requested.get(i), toValueWrapper(deserializeCacheValue(value)));
+            } else {
+                statistics.incMisses(getName());
+            }
+        }
+        return hits;
+    }
+}
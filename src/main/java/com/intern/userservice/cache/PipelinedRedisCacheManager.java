@@ -0,0 +1,32 @@
+package com.intern.userservice.cache;
+
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.util.Map;
+
+public class PipelinedRedisCacheManager extends RedisCacheManager {
+
+    private final RedisLoadLock loadLock;
+    private final CacheStatisticsCollector statistics;
+
+    public PipelinedRedisCacheManager(RedisCacheWriter cacheWriter,
+                                      RedisCacheConfiguration defaultCacheConfiguration,
+                                      Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                      RedisLoadLock loadLock,
+                                      CacheStatisticsCollector statistics) {
+        super(cacheWriter.withStatisticsCollector(statistics), defaultCacheConfiguration, initialCacheConfigurations);
+        this.loadLock = loadLock;
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        return new PipelinedRedisCache(name, getCacheWriter(),
+                cacheConfiguration != null ? cacheConfiguration : getDefaultCacheConfiguration(),
+                loadLock, statistics);
+    }
+}
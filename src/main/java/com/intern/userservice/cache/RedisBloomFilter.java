@@ -0,0 +1,190 @@
+package com.intern.userservice.cache;
+
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.BitFieldSubCommands.BitFieldType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Bloom filter stored as a Redis bitmap, so every instance reads and extends the same bits. Bit 0 is set once the
+ * filter has been fully built; until then, and whenever the key is lost, every value is reported as possibly
+ * present. Removals are not supported: a value that goes away stays a false positive.
+ */
+public class RedisBloomFilter {
+
+    private static final long BUILT_FLAG = 0;
+    private static final Duration BUILD_KEY_TTL = Duration.ofHours(1);
+
+    // Merges the freshly built bits with whatever was added meanwhile, then swaps them in.
+    private static final RedisScript<Long> MERGE = RedisScript.of(
+            "redis.call('bitop', 'or', KEYS[2], KEYS[2], KEYS[1]) " +
+            "redis.call('rename', KEYS[2], KEYS[1]) " +
+            "redis.call('persist', KEYS[1]) " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final byte[] rawKey;
+    private final long bitSize;
+    private final int hashCount;
+
+    public RedisBloomFilter(StringRedisTemplate redisTemplate, String key,
+                            long expectedInsertions, double falsePositiveRate) {
+        this.bitSize = optimalBitSize(expectedInsertions, falsePositiveRate);
+        this.hashCount = optimalHashCount(expectedInsertions, bitSize);
+        this.redisTemplate = redisTemplate;
+        // the sizing is part of the key so that resizing starts over instead of misreading old bits
+        this.key = key + ":" + bitSize + ":" + hashCount;
+        this.rawKey = this.key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean mightContain(String value) {
+        List<Long> bits = redisTemplate.execute(
+                (RedisCallback<List<Long>>) connection -> read(connection, value));
+        return mightContain(bits);
+    }
+
+    /**
+     * Returns the values that may be present, in their original order, using one pipelined round trip.
+     */
+    public List<String> filterMightContain(Collection<String> values) {
+        List<String> requested = List.copyOf(values);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            requested.forEach(value -> read(connection, value));
+            return null;
+        });
+        List<String> candidates = new ArrayList<>(requested.size());
+        for (int i = 0; i < requested.size(); i++) {
+            @SuppressWarnings("unchecked")
+            List<Long> bits = (List<Long>) results.get(i);
+            if (mightContain(bits)) {
+                candidates.add(requested.get(i));
+            }
+        }
+        return candidates;
+    }
+
+    public void add(String value) {
+        addAll(List.of(value));
+    }
+
+    public void addAll(Collection<String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String value : values) {
+                BitFieldSubCommands commands = BitFieldSubCommands.create();
+                for (long position : positions(value)) {
+                    commands = commands.set(BitFieldType.unsigned(1)).valueAt(position).to(1);
+                }
+                connection.stringCommands().bitField(rawKey, commands);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Clears the built flag, so every value is reported as possibly present until the filter is built again.
+     */
+    public void reset() {
+        redisTemplate.opsForValue().setBit(key, BUILT_FLAG, false);
+    }
+
+    public boolean isBuilt() {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().getBit(key, BUILT_FLAG));
+    }
+
+    /**
+     * Builds the bitmap from every value {@code source} hands out and merges it into the shared key, keeping bits
+     * added by other instances in the meantime. Several instances may build at the same time.
+     */
+    public void build(Consumer<Consumer<String>> source) {
+        byte[] bitmap = new byte[Math.toIntExact((bitSize + 7) / 8)];
+        setBit(bitmap, BUILT_FLAG);
+        source.accept(value -> {
+            for (long position : positions(value)) {
+                setBit(bitmap, position);
+            }
+        });
+
+        String buildKey = key + ":build:" + UUID.randomUUID();
+        redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().set(
+                buildKey.getBytes(StandardCharsets.UTF_8), bitmap,
+                Expiration.from(BUILD_KEY_TTL), SetOption.upsert()));
+        redisTemplate.execute(MERGE, List.of(key, buildKey));
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private List<Long> read(RedisConnection connection, String value) {
+        BitFieldSubCommands commands = BitFieldSubCommands.create()
+                .get(BitFieldType.unsigned(1)).valueAt(BUILT_FLAG);
+        for (long position : positions(value)) {
+            commands = commands.get(BitFieldType.unsigned(1)).valueAt(position);
+        }
+        return connection.stringCommands().bitField(rawKey, commands);
+    }
+
+    private static boolean mightContain(List<Long> bits) {
+        if (bits == null || bits.isEmpty() || bits.get(0) == 0) {
+            return true;
+        }
+        return bits.stream().allMatch(bit -> bit != null && bit == 1);
+    }
+
+    /**
+     * Double hashing over a 64-bit FNV-1a hash; bit 0 is reserved for the built flag.
+     */
+    private long[] positions(String value) {
+        long h1 = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h1 = (h1 ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        long h2 = mix(h1) | 1;
+        long[] positions = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            positions[i] = 1 + Math.floorMod(h1 + i * h2, bitSize - 1);
+        }
+        return positions;
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    private static void setBit(byte[] bitmap, long position) {
+        // Redis numbers bits from the most significant bit of the first byte
+        bitmap[(int) (position >>> 3)] |= (byte) (0x80 >>> (position & 7));
+    }
+
+    private static long optimalBitSize(long expectedInsertions, double falsePositiveRate) {
+        return Math.max(64, (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+    }
+
+    private static int optimalHashCount(long expectedInsertions, long bitSize) {
+        return Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+}
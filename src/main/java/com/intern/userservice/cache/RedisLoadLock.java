@@ -0,0 +1,68 @@
+package com.intern.userservice.cache;
+
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived {@code SET NX PX} lock that lets a single instance in the cluster load a missing cache entry while
+ * the others poll Redis for the value it writes. Losing the lock is never fatal: after {@code wait} the caller
+ * loads the value itself.
+ */
+public class RedisLoadLock {
+
+    private static final String KEY_PREFIX = "lock:";
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Duration wait;
+    private final Duration pollInterval;
+
+    public RedisLoadLock(StringRedisTemplate redisTemplate, Duration ttl, Duration wait, Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.wait = wait;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Returns the owner token when the lock was taken, {@code null} when another instance holds it.
+     */
+    public String tryAcquire(String key) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, token, ttl);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    public void release(String key, String token) {
+        redisTemplate.execute(RELEASE, List.of(KEY_PREFIX + key), token);
+    }
+
+    /**
+     * Polls {@code lookup} until it finds a value or the wait time runs out.
+     */
+    public ValueWrapper await(Supplier<ValueWrapper> lookup) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(pollInterval.toNanos());
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            ValueWrapper wrapper = lookup.get();
+            if (wrapper != null) {
+                return wrapper;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,241 @@
+package com.intern.userservice.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.RedisConnection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process L1 in front of a shared Redis L2. Reads are served from L1 when possible; every write goes to
+ * Redis first and is then broadcast so the other instances drop their L1 copy.
+ */
+public class TwoTierCache implements PipelinedCache {
+
+    private final Cache local;
+    private final Cache remote;
+    private final CacheInvalidationPublisher publisher;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TwoTierCache(Cache local, Cache remote, CacheInvalidationPublisher publisher) {
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = local.get(key);
+        if (wrapper != null) {
+            localHits.increment();
+            return wrapper;
+        }
+        wrapper = remote.get(key);
+        if (wrapper != null) {
+            remoteHits.increment();
+            local.put(key, wrapper.get());
+        } else {
+            misses.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = local.get(key);
+        if (wrapper != null) {
+            localHits.increment();
+            return (T) wrapper.get();
+        }
+        // Redis lookup and loading, including coalescing of concurrent misses, are left to the remote cache.
+        AtomicBoolean loaded = new AtomicBoolean();
+        T value = remote.get(key, () -> {
+            loaded.set(true);
+            return valueLoader.call();
+        });
+        (loaded.get() ? misses : remoteHits).increment();
+        local.put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        puts.increment();
+        remote.put(key, value);
+        local.put(key, value);
+        publisher.publish(getName(), key);
+    }
+
+    @Override
+    public void put(RedisConnection connection, Object key, Object value) {
+        puts.increment();
+        if (remote instanceof PipelinedCache pipelined) {
+            pipelined.put(connection, key, value);
+        } else {
+            remote.put(key, value);
+        }
+        local.put(key, value);
+        publisher.publish(connection, getName(), key);
+    }
+
+    @Override
+    public <K> Map<K, ValueWrapper> getAll(RedisConnection connection, Collection<K> keys) {
+        Map<K, ValueWrapper> hits = new HashMap<>();
+        List<K> localMisses = new ArrayList<>();
+        for (K key : keys) {
+            ValueWrapper wrapper = local.get(key);
+            if (wrapper != null) {
+                hits.put(key, wrapper);
+            } else {
+                localMisses.add(key);
+            }
+        }
+        localHits.add(hits.size());
+        if (localMisses.isEmpty()) {
+            return hits;
+        }
+        int localHitCount = hits.size();
+        if (remote instanceof PipelinedCache pipelined) {
+            pipelined.getAll(connection, localMisses).forEach((key, wrapper) -> {
+                local.put(key, wrapper.get());
+                hits.put(key, wrapper);
+            });
+        } else {
+            for (K key : localMisses) {
+                ValueWrapper wrapper = remote.get(key);
+                if (wrapper != null) {
+                    local.put(key, wrapper.get());
+                    hits.put(key, wrapper);
+                }
+            }
+        }
+        remoteHits.add(hits.size() - localHitCount);
+        misses.add(keys.size() - hits.size());
+        return hits;
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        puts.increment();
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing != null) {
+            local.put(key, existing.get());
+            return existing;
+        }
+        local.put(key, value);
+        publisher.publish(getName(), key);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictions.increment();
+        remote.evict(key);
+        local.evict(key);
+        publisher.publish(getName(), key);
+    }
+
+    @Override
+    public void evict(RedisConnection connection, Object key) {
+        evictions.increment();
+        if (remote instanceof PipelinedCache pipelined) {
+            pipelined.evict(connection, key);
+        } else {
+            remote.evict(key);
+        }
+        local.evict(key);
+        publisher.publish(connection, getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evictions.increment();
+        boolean evicted = remote.evictIfPresent(key);
+        local.evict(key);
+        publisher.publish(getName(), key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+        publisher.publish(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        local.clear();
+        publisher.publish(getName(), null);
+        return invalidated;
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public Long getLocalSize() {
+        return local.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine
+                ? caffeine.estimatedSize()
+                : null;
+    }
+
+    void evictLocal(Object key) {
+        if (key == null) {
+            local.clear();
+        } else {
+            local.evict(key);
+        }
+    }
+}
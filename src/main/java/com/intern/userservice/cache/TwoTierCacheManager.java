@@ -0,0 +1,69 @@
+package com.intern.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.intern.userservice.config.NearCacheProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private final RedisCacheManager redisCacheManager;
+    private final NearCacheProperties nearCacheProperties;
+    private final CacheInvalidationPublisher publisher;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(RedisCacheManager redisCacheManager,
+                               NearCacheProperties nearCacheProperties,
+                               CacheInvalidationPublisher publisher) {
+        this.redisCacheManager = redisCacheManager;
+        this.nearCacheProperties = nearCacheProperties;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = redisCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoTierCache(createLocalCache(n), remote, publisher));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        // the configured names, not just the ones touched so far, so metrics can bind every cache at startup
+        return redisCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation = publisher.readRemote(message);
+        if (invalidation == null) {
+            return;
+        }
+        TwoTierCache cache = caches.get(invalidation.cacheName());
+        if (cache != null) {
+            cache.evictLocal(invalidation.key());
+        }
+    }
+
+    private Cache createLocalCache(String name) {
+        NearCacheProperties.Spec spec = nearCacheProperties.forCache(name);
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getTtl())
+                .build());
+    }
+}
@@ -0,0 +1,58 @@
+package com.intern.userservice.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Standard {@code cache.*} meters for a {@link TwoTierCache}, plus {@code cache.tier.hits} split by the tier that
+ * served the hit. The Redis tier reports its own numbers through its cache statistics.
+ */
+public class TwoTierCacheMetrics extends CacheMeterBinder<TwoTierCache> {
+
+    public TwoTierCacheMetrics(TwoTierCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        return getCache().getLocalSize();
+    }
+
+    @Override
+    protected long hitCount() {
+        return getCache().getLocalHits() + getCache().getRemoteHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return getCache().getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return getCache().getEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return getCache().getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        tierHits(registry, "local", TwoTierCache::getLocalHits);
+        tierHits(registry, "remote", TwoTierCache::getRemoteHits);
+    }
+
+    private void tierHits(MeterRegistry registry, String tier, ToDoubleFunction<TwoTierCache> count) {
+        FunctionCounter.builder("cache.tier.hits", getCache(), count)
+                .tags(Tags.concat(getTagsWithCacheName(), "tier", tier))
+                .description("The number of hits served by the in-process (local) or Redis (remote) tier")
+                .register(registry);
+    }
+}
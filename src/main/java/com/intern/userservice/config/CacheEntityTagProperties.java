@@ -0,0 +1,19 @@
+package com.intern.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashSet;
+import java.util.Set;
+
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "cache.entity-tags")
+public class CacheEntityTagProperties {
+
+    private Set<String> cacheNames = new HashSet<>();
+}
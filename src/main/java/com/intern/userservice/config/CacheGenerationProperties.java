@@ -0,0 +1,21 @@
+package com.intern.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "cache.generations")
+public class CacheGenerationProperties {
+
+    private Set<String> cacheNames = new HashSet<>();
+    private Duration refresh = Duration.ofSeconds(5);
+}
@@ -0,0 +1,21 @@
+package com.intern.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "cache.load-lock")
+public class CacheLoadLockProperties {
+
+    private boolean enabled = false;
+    private Duration ttl = Duration.ofSeconds(5);
+    private Duration wait = Duration.ofSeconds(2);
+    private Duration pollInterval = Duration.ofMillis(20);
+}
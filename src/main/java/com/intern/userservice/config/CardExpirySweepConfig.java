@@ -0,0 +1,11 @@
+package com.intern.userservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "card-expiry.sweep", name = "enabled", havingValue = "true")
+public class CardExpirySweepConfig {
+}
@@ -0,0 +1,33 @@
+package com.intern.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Period;
+
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "card-expiry.sweep")
+public class CardExpirySweepProperties {
+
+    private boolean enabled = false;
+    private Duration interval = Duration.ofHours(1);
+    /**
+     * How long a card stays after its expiration date before the sweep deletes it.
+     */
+    private Period retention = Period.ofDays(90);
+    /**
+     * Cards deleted per transaction; small batches keep row locks and WAL bursts short.
+     */
+    private int batchSize = 500;
+    private Duration pauseBetweenBatches = Duration.ofMillis(100);
+    /**
+     * Caps the work done per run; whatever is left over is picked up by the next one.
+     */
+    private int maxBatchesPerRun = 200;
+}
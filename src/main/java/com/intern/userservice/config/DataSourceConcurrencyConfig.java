@@ -0,0 +1,49 @@
+package com.intern.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConcurrencyConfig {
+
+    private static final int DEFAULT_PERMITS = 10;
+
+    @Bean
+    public static BeanPostProcessor dataSourceConcurrencyLimiter(
+            ObjectProvider<DataSourceConcurrencyProperties> propertiesProvider) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                DataSourceConcurrencyProperties properties = propertiesProvider.getObject();
+                if (!properties.isEnabled()) {
+                    return bean;
+                }
+                return new ConcurrencyLimitedDataSource(dataSource, permits(dataSource, properties),
+                        properties.getAcquireTimeout());
+            }
+        };
+    }
+
+    private static int permits(DataSource dataSource, DataSourceConcurrencyProperties properties) {
+        if (properties.getPermits() > 0) {
+            return properties.getPermits();
+        }
+        DataSource target = dataSource;
+        while (target instanceof DelegatingDataSource delegating && delegating.getTargetDataSource() != null) {
+            target = delegating.getTargetDataSource();
+        }
+        if (target instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        return DEFAULT_PERMITS;
+    }
+}
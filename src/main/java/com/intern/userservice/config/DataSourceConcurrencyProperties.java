@@ -0,0 +1,23 @@
+package com.intern.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "datasource.concurrency-limit")
+public class DataSourceConcurrencyProperties {
+
+    private boolean enabled = false;
+    /**
+     * Maximum number of threads holding or waiting for a connection; 0 means the connection pool size.
+     */
+    private int permits = 0;
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
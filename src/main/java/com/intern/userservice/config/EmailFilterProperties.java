@@ -0,0 +1,20 @@
+package com.intern.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "email-filter")
+public class EmailFilterProperties {
+
+    private boolean enabled = true;
+    private String key = "filter:user-email";
+    private long expectedInsertions = 1_000_000;
+    private double falsePositiveRate = 0.01;
+    private int fetchSize = 10_000;
+}
@@ -0,0 +1,17 @@
+package com.intern.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "export")
+public class ExportProperties {
+
+    private int fetchSize = 1_000;
+    private int bufferSize = 64 * 1024;
+}
@@ -0,0 +1,34 @@
+package com.intern.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "cache.local")
+public class NearCacheProperties {
+
+    private boolean enabled = true;
+    private String invalidationChannel = "cache:invalidation";
+    private Spec defaults = new Spec();
+    private Map<String, Spec> cacheNames = new HashMap<>();
+
+    public Spec forCache(String name) {
+        return cacheNames.getOrDefault(name, defaults);
+    }
+
+    @Setter
+    @Getter
+    public static class Spec {
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+}
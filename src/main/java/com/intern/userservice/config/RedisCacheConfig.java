@@ -1,10 +1,26 @@
 package com.intern.userservice.config;
 
+import com.intern.userservice.cache.CacheGenerations;
+import com.intern.userservice.cache.CacheInvalidationPublisher;
+import com.intern.userservice.cache.CompactCacheValueSerializer;
+import com.intern.userservice.cache.EntityTagCacheManager;
+import com.intern.userservice.cache.GenerationalCacheManager;
+import com.intern.userservice.cache.LayeredCacheMeterBinderProvider;
+import com.intern.userservice.cache.PipelinedRedisCacheManager;
+import com.intern.userservice.cache.RedisLoadLock;
+import com.intern.userservice.cache.TwoTierCacheManager;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -13,24 +29,82 @@ import java.util.Map;
 public class RedisCacheConfig {
 
     private final CacheTtlProperties cacheTtlProperties;
+    private final NearCacheProperties nearCacheProperties;
+    private final CacheLoadLockProperties cacheLoadLockProperties;
+    private final CacheGenerationProperties cacheGenerationProperties;
+    private final CacheEntityTagProperties cacheEntityTagProperties;
 
-    public RedisCacheConfig(CacheTtlProperties cacheTtlProperties) {
+    public RedisCacheConfig(CacheTtlProperties cacheTtlProperties,
+                            NearCacheProperties nearCacheProperties,
+                            CacheLoadLockProperties cacheLoadLockProperties,
+                            CacheGenerationProperties cacheGenerationProperties,
+                            CacheEntityTagProperties cacheEntityTagProperties) {
         this.cacheTtlProperties = cacheTtlProperties;
+        this.nearCacheProperties = nearCacheProperties;
+        this.cacheLoadLockProperties = cacheLoadLockProperties;
+        this.cacheGenerationProperties = cacheGenerationProperties;
+        this.cacheEntityTagProperties = cacheEntityTagProperties;
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     CacheInvalidationPublisher invalidationPublisher,
+                                     CacheGenerations cacheGenerations) {
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(cacheTtlProperties.getDefaults());
+                .entryTtl(cacheTtlProperties.getDefaults())
+                .serializeValuesWith(SerializationPair.fromSerializer(new CompactCacheValueSerializer()));
 
         Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
         cacheTtlProperties.getCacheNames().forEach((name, ttl) ->
                 cacheConfigs.put(name, defaultConfig.entryTtl(ttl))
         );
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
-                .withInitialCacheConfigurations(cacheConfigs)
-                .build();
+        RedisCacheManager redisCacheManager = new PipelinedRedisCacheManager(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory),
+                defaultConfig,
+                cacheConfigs,
+                createLoadLock(stringRedisTemplate),
+                CacheStatisticsCollector.create());
+        redisCacheManager.afterPropertiesSet();
+
+        CacheManager cacheManager = nearCacheProperties.isEnabled()
+                ? new TwoTierCacheManager(redisCacheManager, nearCacheProperties, invalidationPublisher)
+                : redisCacheManager;
+        GenerationalCacheManager generationalCacheManager = new GenerationalCacheManager(cacheManager,
+                cacheGenerations, cacheGenerationProperties.getCacheNames());
+        return new EntityTagCacheManager(generationalCacheManager, cacheEntityTagProperties.getCacheNames());
+    }
+
+    private RedisLoadLock createLoadLock(StringRedisTemplate stringRedisTemplate) {
+        if (!cacheLoadLockProperties.isEnabled()) {
+            return null;
+        }
+        return new RedisLoadLock(stringRedisTemplate,
+                cacheLoadLockProperties.getTtl(),
+                cacheLoadLockProperties.getWait(),
+                cacheLoadLockProperties.getPollInterval());
+    }
+
+    @Bean
+    public LayeredCacheMeterBinderProvider layeredCacheMeterBinderProvider() {
+        return new LayeredCacheMeterBinderProvider();
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheManager cacheManager,
+                                                                            CacheInvalidationPublisher invalidationPublisher,
+                                                                            CacheGenerations cacheGenerations) {
+        ChannelTopic topic = new ChannelTopic(invalidationPublisher.getChannel());
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheGenerations, topic);
+        if (cacheManager instanceof EntityTagCacheManager entityTagCacheManager
+                && entityTagCacheManager.getDelegate() instanceof GenerationalCacheManager generationalCacheManager
+                && generationalCacheManager.getDelegate() instanceof TwoTierCacheManager twoTierCacheManager) {
+            container.addMessageListener(twoTierCacheManager, topic);
+        }
+        return container;
     }
-}
\ No newline at end of file
+}
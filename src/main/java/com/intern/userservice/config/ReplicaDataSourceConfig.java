@@ -0,0 +1,119 @@
+package com.intern.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes connections of read-only transactions ({@code @Transactional(readOnly = true)}) to the replicas. The
+ * primary is wrapped in a {@link LazyConnectionDataSourceProxy}, which fetches the physical connection on the first
+ * statement, after the transaction has marked it read-only, and takes it from {@link ReplicaRoutingDataSource} then.
+ * Reads that fill a cache are pinned to the primary, so a lagging row is never cached for a whole TTL.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replicas", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final String PRIMARY_BEAN_NAME = "dataSource";
+
+    @Bean
+    public static DestructionAwareBeanPostProcessor replicaRouting(
+            ObjectProvider<ReplicaDataSourceProperties> propertiesProvider,
+            ObjectProvider<DataSourceProperties> primaryPropertiesProvider) {
+        return new ReplicaRoutingPostProcessor(propertiesProvider, primaryPropertiesProvider);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaDataSourceProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(
+                properties.getStickyCookieName(), properties.getReadYourWritesWindow(), Clock.systemUTC()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // Ordered so that it wraps the primary before the unordered concurrency limiter wraps the result, which then
+    // bounds replica and primary connections together.
+    private static class ReplicaRoutingPostProcessor implements DestructionAwareBeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ReplicaDataSourceProperties> propertiesProvider;
+        private final ObjectProvider<DataSourceProperties> primaryPropertiesProvider;
+        private ReplicaRoutingDataSource router;
+
+        ReplicaRoutingPostProcessor(ObjectProvider<ReplicaDataSourceProperties> propertiesProvider,
+                                    ObjectProvider<DataSourceProperties> primaryPropertiesProvider) {
+            this.propertiesProvider = propertiesProvider;
+            this.primaryPropertiesProvider = primaryPropertiesProvider;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource primary) || !PRIMARY_BEAN_NAME.equals(beanName)) {
+                return bean;
+            }
+            ReplicaDataSourceProperties properties = propertiesProvider.getObject();
+            DataSourceProperties primaryProperties = primaryPropertiesProvider.getObject();
+            List<DataSource> replicas = new ArrayList<>();
+            for (ReplicaDataSourceProperties.Instance instance : properties.getInstances()) {
+                replicas.add(replica(instance, replicas.size(), properties, primaryProperties));
+            }
+            router = new ReplicaRoutingDataSource(
+                    primary, replicas, properties.getMaxLag(), properties.getLagCheckInterval());
+
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+            proxy.setReadOnlyDataSource(router);
+            return proxy;
+        }
+
+        @Override
+        public void postProcessBeforeDestruction(Object bean, String beanName) {
+            if (PRIMARY_BEAN_NAME.equals(beanName) && router != null) {
+                try {
+                    router.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        private static DataSource replica(ReplicaDataSourceProperties.Instance instance, int index,
+                                          ReplicaDataSourceProperties properties,
+                                          DataSourceProperties primaryProperties) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(primaryProperties.determineDriverClassName())
+                    .url(instance.getUrl())
+                    .username(instance.getUsername() != null
+                            ? instance.getUsername()
+                            : primaryProperties.determineUsername())
+                    .password(instance.getPassword() != null
+                            ? instance.getPassword()
+                            : primaryProperties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + index);
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            replica.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            replica.setReadOnly(true);
+            return replica;
+        }
+    }
+}
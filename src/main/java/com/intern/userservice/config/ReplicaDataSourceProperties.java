@@ -0,0 +1,47 @@
+package com.intern.userservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled = false;
+    private List<Instance> instances = new ArrayList<>();
+    private int maximumPoolSize = 10;
+    /**
+     * How long to wait for a replica connection before trying the next replica or the primary.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+    /**
+     * Replicas further behind than this are skipped until they catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(1);
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+    /**
+     * How long a client's reads keep going to the primary after it sent a write.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    private String stickyCookieName = "primary-until";
+
+    @Setter
+    @Getter
+    public static class Instance {
+        private String url;
+        /**
+         * Defaults to the primary's credentials.
+         */
+        private String username;
+        private String password;
+    }
+}
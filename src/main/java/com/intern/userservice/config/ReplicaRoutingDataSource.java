@@ -0,0 +1,143 @@
+package com.intern.userservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections round-robin, skipping replicas that lag more than {@code maxLag} or cannot be
+ * reached, and falls back to the primary when none is usable or the current thread is pinned to it. Replica lag is
+ * measured at most once per {@code lagCheckInterval}, in the background once the first value is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Duration UNREACHABLE = Duration.ofSeconds(Long.MAX_VALUE);
+
+    // 0 on a server that is not replaying WAL, or that has replayed everything it received
+    private static final String LAG_QUERY =
+            "SELECT CAST(CASE WHEN NOT pg_is_in_recovery() " +
+            "                   OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "                 ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) " +
+            "            END AS BIGINT)";
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final Duration maxLag;
+    private final LoadingCache<DataSource, Duration> lag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    Duration maxLag, Duration lagCheckInterval) {
+        this(primary, replicas, maxLag, lagCheckInterval, ReplicaRoutingDataSource::measureLag);
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag,
+                                    Duration lagCheckInterval, Function<DataSource, Duration> lagProbe) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.lag = Caffeine.newBuilder()
+                .refreshAfterWrite(lagCheckInterval)
+                .build(lagProbe::apply);
+    }
+
+    /**
+     * Sends every read-only connection the current thread asks for to the primary until {@link #unpin()}.
+     */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    /**
+     * Runs {@code action} pinned to the primary. A pin the thread already holds is left in place.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (isPinnedToPrimary()) {
+            return action.get();
+        }
+        pinToPrimary();
+        try {
+            return action.get();
+        } finally {
+            unpin();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(target -> target.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource connectionSource) throws SQLException {
+        if (!isPinnedToPrimary()) {
+            int start = next.getAndIncrement();
+            for (int i = 0; i < replicas.size(); i++) {
+                DataSource replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+                if (lag.get(replica).compareTo(maxLag) > 0) {
+                    continue;
+                }
+                try {
+                    return connectionSource.connect(replica);
+                } catch (SQLException e) {
+                    // skipped until the next successful lag check
+                    lag.put(replica, UNREACHABLE);
+                }
+            }
+        }
+        return connectionSource.connect(primary);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Duration measureLag(DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            return Duration.ofMillis(rs.getLong(1));
+        } catch (SQLException e) {
+            return UNREACHABLE;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+
+        Connection connect(DataSource target) throws SQLException;
+    }
+}
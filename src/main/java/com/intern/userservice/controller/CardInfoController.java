@@ -1,27 +1,48 @@
 package com.intern.userservice.controller;
 
+import com.intern.userservice.cache.CacheEntityTags;
+import com.intern.userservice.cache.EntityTaggedValue;
+import com.intern.userservice.dto.CardImportFormat;
+import com.intern.userservice.dto.CardImportReport;
 import com.intern.userservice.dto.CardInfoCreateDto;
 import com.intern.userservice.dto.CardInfoResponse;
+import com.intern.userservice.dto.CursorPage;
+import com.intern.userservice.dto.ExportFormat;
+import com.intern.userservice.dto.SliceResponse;
 import com.intern.userservice.service.CardInfoService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/cards")
+@Validated
 public class CardInfoController {
 
     private final CardInfoService cardInfoService;
+    private final CacheEntityTags cacheEntityTags;
 
     @Autowired
-    public CardInfoController(CardInfoService cardInfoService) {
+    public CardInfoController(CardInfoService cardInfoService, CacheEntityTags cacheEntityTags) {
         this.cardInfoService = cardInfoService;
+        this.cacheEntityTags = cacheEntityTags;
     }
 
     @PostMapping
@@ -30,6 +51,25 @@ public class CardInfoController {
         return ResponseEntity.ok(created);
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<CardImportReport> importCards(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                        InputStream body) {
+        CardImportFormat format = MediaType.valueOf("text/csv").isCompatibleWith(contentType)
+                ? CardImportFormat.CSV
+                : CardImportFormat.NDJSON;
+        CardImportReport report = cardInfoService.importCards(body, format);
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping(value = "/export", produces = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportCards(
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = "application/x-ndjson") String accept) {
+        ExportFormat format = ExportFormat.fromAccept(accept);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(out -> cardInfoService.exportCards(out, format));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CardInfoResponse> getCardById(@PathVariable Long id) {
         Optional<CardInfoResponse> card = cardInfoService.getCardById(id);
@@ -38,9 +78,23 @@ public class CardInfoController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<CardInfoResponse>> getCardsByUserId(@RequestParam Long userId) {
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<List<CardInfoResponse>> getCardsByUserId(@RequestParam Long userId, WebRequest request) {
+        // a cache hit is answered from the tagged entry, a single read for the body and its stored tag
+        EntityTaggedValue cached = cacheEntityTags.find("userCards", userId);
+        if (cached != null) {
+            return RepresentationTags.ok((List<CardInfoResponse>) cached.value(), cached.entityTag(), request);
+        }
+        // only a value that was just loaded, or cached without a tag, is hashed here
         List<CardInfoResponse> userCards = cardInfoService.getCardsByUserId(userId);
-        return ResponseEntity.ok(userCards);
+        return RepresentationTags.ok(userCards, cacheEntityTags.of(userCards), request);
+    }
+
+    @GetMapping("/search/batch")
+    public ResponseEntity<Map<Long, List<CardInfoResponse>>> getCardsByUserIds(
+            @RequestParam @NotEmpty @Size(max = 1000) List<Long> userIds) {
+        Map<Long, List<CardInfoResponse>> cards = cardInfoService.getCardsByUserIds(userIds);
+        return ResponseEntity.ok(cards);
     }
 
     @GetMapping
@@ -49,6 +103,35 @@ public class CardInfoController {
         return ResponseEntity.ok(cards);
     }
 
+    @GetMapping(params = "total=estimated")
+    public ResponseEntity<Page<CardInfoResponse>> getAllCardsEstimated(Pageable pageable) {
+        Page<CardInfoResponse> cards = cardInfoService.getAllCardsEstimated(pageable);
+        return ResponseEntity.ok(cards);
+    }
+
+    @GetMapping(params = "total=none")
+    public ResponseEntity<SliceResponse<CardInfoResponse>> getCardsSlice(Pageable pageable) {
+        Slice<CardInfoResponse> cards = cardInfoService.getCardsSlice(pageable);
+        return ResponseEntity.ok(SliceResponse.of(cards));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<CardInfoResponse>> scrollCards(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int size) {
+        CursorPage<CardInfoResponse> cards = cardInfoService.getCardsAfter(after, size);
+        return ResponseEntity.ok(cards);
+    }
+
+    @GetMapping("/expiring")
+    public ResponseEntity<CursorPage<CardInfoResponse>> getCardsExpiringWithin(
+            @RequestParam @Min(0) @Max(366) int days,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int size) {
+        CursorPage<CardInfoResponse> cards = cardInfoService.getCardsExpiringWithin(days, after, size);
+        return ResponseEntity.ok(cards);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCardById(@PathVariable Long id) {
         cardInfoService.deleteCardById(id);
@@ -0,0 +1,64 @@
+package com.intern.userservice.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A strong entity tag names one exact body, so the CBOR rendering of a response gets a tag of its own. The
+ * representation is read from {@code Accept} the way content negotiation resolves it: the most specific and
+ * preferred type that JSON or CBOR can satisfy, with JSON winning for wildcards.
+ */
+final class RepresentationTags {
+
+    private static final String CBOR_SUFFIX = "-cbor";
+
+    private RepresentationTags() {
+    }
+
+    static String forRequest(String entityTag, WebRequest request) {
+        return prefersCbor(request.getHeader(HttpHeaders.ACCEPT)) ? entityTag + CBOR_SUFFIX : entityTag;
+    }
+
+    /**
+     * Sends {@code body} with the tag of its representation. When {@code If-None-Match} matches, Spring MVC turns
+     * this into a 304 before the body is rendered, keeping the {@code Vary} header.
+     */
+    static <T> ResponseEntity<T> ok(T body, String entityTag, WebRequest request) {
+        return ResponseEntity.ok()
+                .eTag(forRequest(entityTag, request))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    private static boolean prefersCbor(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,19 +1,37 @@
 package com.intern.userservice.controller;
 
+import com.intern.userservice.cache.CacheEntityTags;
+import com.intern.userservice.cache.EntityTaggedValue;
+import com.intern.userservice.dto.CursorPage;
+import com.intern.userservice.dto.ExportFormat;
+import com.intern.userservice.dto.SliceResponse;
+import com.intern.userservice.dto.UserBatchCreateResponse;
 import com.intern.userservice.dto.UserCreateDto;
 import com.intern.userservice.dto.UserResponse;
 import com.intern.userservice.dto.UserUpdateDto;
+import com.intern.userservice.dto.UserWithCardsResponse;
 import com.intern.userservice.service.UserService;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.*;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -22,10 +40,12 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final CacheEntityTags cacheEntityTags;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, CacheEntityTags cacheEntityTags) {
         this.userService = userService;
+        this.cacheEntityTags = cacheEntityTags;
     }
 
     @PostMapping
@@ -34,9 +54,45 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<UserBatchCreateResponse> createUsers(
+            @RequestBody @NotEmpty @Size(max = 1000) List<@Valid UserCreateDto> requests) {
+        UserBatchCreateResponse result = userService.createUsers(requests);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<List<UserResponse>> getUsersByIds(
+            @RequestParam @NotEmpty @Size(max = 1000) List<Long> ids) {
+        List<UserResponse> users = userService.getUsersByIds(ids);
+        return ResponseEntity.ok(users);
+    }
+
+    @GetMapping(value = "/export", produces = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = "application/x-ndjson") String accept) {
+        ExportFormat format = ExportFormat.fromAccept(accept);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(out -> userService.exportUsers(out, format));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserResponse> getUserById(@PathVariable Long id, WebRequest request) {
+        // a cache hit is answered from the tagged entry, a single read for the body and its stored tag
+        EntityTaggedValue cached = cacheEntityTags.find("user", id);
+        if (cached != null) {
+            return RepresentationTags.ok((UserResponse) cached.value(), cached.entityTag(), request);
+        }
+        // only a value that was just loaded, or cached without a tag, is hashed here
         Optional<UserResponse> user = userService.getUserById(id);
+        return user.map(u -> RepresentationTags.ok(u, cacheEntityTags.of(u), request))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/{id}", params = "include=cards")
+    public ResponseEntity<UserWithCardsResponse> getUserWithCards(@PathVariable Long id) {
+        Optional<UserWithCardsResponse> user = userService.getUserWithCards(id);
         return user.map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -47,6 +103,26 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(params = "total=estimated")
+    public ResponseEntity<Page<UserResponse>> getAllUsersEstimated(Pageable pageable) {
+        Page<UserResponse> users = userService.getAllUsersEstimated(pageable);
+        return ResponseEntity.ok(users);
+    }
+
+    @GetMapping(params = "total=none")
+    public ResponseEntity<SliceResponse<UserResponse>> getUsersSlice(Pageable pageable) {
+        Slice<UserResponse> users = userService.getUsersSlice(pageable);
+        return ResponseEntity.ok(SliceResponse.of(users));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<UserResponse>> scrollUsers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int size) {
+        CursorPage<UserResponse> users = userService.getUsersAfter(after, size);
+        return ResponseEntity.ok(users);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<UserResponse> getUserByEmail(@Email @RequestParam String email) {
         Optional<UserResponse> user = userService.getUserByEmail(email);
@@ -54,6 +130,13 @@ public class UserController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "/search", params = "name")
+    public ResponseEntity<SliceResponse<UserResponse>> searchUsersByName(
+            @RequestParam("name") @NotBlank @Size(min = 2, max = 100) String name, Pageable pageable) {
+        Slice<UserResponse> users = userService.searchUsersByName(name, pageable);
+        return ResponseEntity.ok(SliceResponse.of(users));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(@PathVariable Long id,
                                                    @Validated @RequestBody UserUpdateDto request) {
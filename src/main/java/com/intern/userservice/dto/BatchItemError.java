@@ -0,0 +1,7 @@
+package com.intern.userservice.dto;
+
+public record BatchItemError(
+        long index,
+        String message
+) {
+}
@@ -0,0 +1,9 @@
+package com.intern.userservice.dto;
+
+public record CardImportChunkError(
+        long firstLine,
+        long lastLine,
+        int rows,
+        String message
+) {
+}
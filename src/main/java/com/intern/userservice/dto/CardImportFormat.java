@@ -0,0 +1,6 @@
+package com.intern.userservice.dto;
+
+public enum CardImportFormat {
+    NDJSON,
+    CSV
+}
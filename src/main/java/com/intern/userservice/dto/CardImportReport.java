@@ -0,0 +1,12 @@
+package com.intern.userservice.dto;
+
+import java.util.List;
+
+public record CardImportReport(
+        long received,
+        long imported,
+        long rejected,
+        List<BatchItemError> errors,
+        List<CardImportChunkError> failedChunks
+) {
+}
@@ -0,0 +1,9 @@
+package com.intern.userservice.dto;
+
+import java.util.List;
+
+public record CursorPage<T>(
+        List<T> content,
+        String next
+) {
+}
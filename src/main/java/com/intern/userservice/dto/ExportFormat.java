@@ -0,0 +1,27 @@
+package com.intern.userservice.dto;
+
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+    NDJSON(MediaType.valueOf("application/x-ndjson")),
+    CSV(MediaType.valueOf("text/csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * CSV when the client asks for it explicitly, NDJSON otherwise (including for wildcards).
+     */
+    public static ExportFormat fromAccept(String accept) {
+        return MediaType.parseMediaTypes(accept).stream().anyMatch(CSV.mediaType::equalsTypeAndSubtype)
+                ? CSV
+                : NDJSON;
+    }
+}
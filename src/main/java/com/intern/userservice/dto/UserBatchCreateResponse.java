@@ -0,0 +1,9 @@
+package com.intern.userservice.dto;
+
+import java.util.List;
+
+public record UserBatchCreateResponse(
+        List<UserResponse> created,
+        List<BatchItemError> errors
+) {
+}
@@ -0,0 +1,15 @@
+package com.intern.userservice.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+
+public record UserWithCardsResponse(
+        Long id,
+        String name,
+        String surname,
+        LocalDate birthDate,
+        String email,
+        List<CardInfoResponse> cards
+) implements Serializable {
+}
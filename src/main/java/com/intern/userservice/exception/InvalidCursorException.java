@@ -0,0 +1,7 @@
+package com.intern.userservice.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("Invalid cursor " + cursor);
+    }
+}
@@ -3,12 +3,14 @@ package com.intern.userservice.mapper;
 import com.intern.userservice.dto.UserCreateDto;
 import com.intern.userservice.dto.UserResponse;
 import com.intern.userservice.dto.UserUpdateDto;
+import com.intern.userservice.dto.UserWithCardsResponse;
 import com.intern.userservice.model.User;
 import org.mapstruct.*;
 
 @Mapper(componentModel = "spring", uses = { CardInfoMapper.class })
 public interface UserMapper {
     UserResponse toUserResponse(User user);
+    UserWithCardsResponse toUserWithCardsResponse(User user);
     User fromUserResponse(UserResponse dto);
 
     UserCreateDto toUserCreateDto(User user);
@@ -1,38 +1,73 @@
 package com.intern.userservice.repository;
 
 import com.intern.userservice.model.CardInfo;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CardInfoRepository extends JpaRepository<CardInfo, Long> {
+public interface CardInfoRepository extends JpaRepository<CardInfo, Long>, CardInfoRepositoryCustom {
 
+    /**
+     * Empty when the user already has a card with this number; an unknown user fails on {@code fk_cardinfo_user}.
+     */
     @Query(value = "INSERT INTO card_info (number, holder, expiration_date, user_id) " +
-            "VALUES (:number, :holder, :expirationDate, :userId)" +
+            "VALUES (:number, :holder, :expirationDate, :userId) " +
+            "ON CONFLICT (user_id, number) DO NOTHING " +
             "RETURNING *", nativeQuery = true)
-    CardInfo createCardNative(@Param("number") String number,
-                          @Param("holder") String holder,
-                          @Param("expirationDate") LocalDate expirationDate,
-                          @Param("userId") Long userId);
+    Optional<CardInfo> createCardNative(@Param("number") String number,
+                                        @Param("holder") String holder,
+                                        @Param("expirationDate") LocalDate expirationDate,
+                                        @Param("userId") Long userId);
 
     @Query(value = "SELECT * FROM card_info WHERE id = :id", nativeQuery = true)
     Optional<CardInfo> findByIdNative(@Param("id") Long id);
 
-    @Modifying
-    @Query(value = "DELETE FROM card_info WHERE id = :id", nativeQuery = true)
-    int deleteByIdNative(@Param("id") Long id);
+    /**
+     * Returns the id of the user the card belonged to; empty when there is no card with this id.
+     */
+    @Query(value = "DELETE FROM card_info WHERE id = :id RETURNING user_id", nativeQuery = true)
+    @Transactional
+    Optional<Long> deleteByIdNative(@Param("id") Long id);
 
     List<CardInfo> getCardInfosByUserId(Long userId);
 
+    List<CardInfo> findByUserIdIn(Collection<Long> userIds);
+
     boolean existsCardInfoByUserIdAndNumber(Long userId, String number);
 
+    List<CardInfo> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    Slice<CardInfo> findAllBy(Pageable pageable);
+
+    /**
+     * Keyset page of the cards expiring on or before {@code until}, in (expiration date, id) order, starting after
+     * the given position. Served by {@code idx_cardinfo_expiration_date}.
+     */
+    @Query(value = "SELECT * FROM card_info " +
+            "WHERE (expiration_date, id) > (:afterDate, :afterId) AND expiration_date <= :until " +
+            "ORDER BY expiration_date, id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<CardInfo> findExpiringAfter(@Param("afterDate") LocalDate afterDate,
+                                     @Param("afterId") Long afterId,
+                                     @Param("until") LocalDate until,
+                                     @Param("limit") int limit);
+
+    @Query(value = "SELECT CAST(GREATEST(reltuples, 0) AS BIGINT) FROM pg_class " +
+            "WHERE oid = CAST('card_info' AS regclass)",
+            nativeQuery = true)
+    long estimateCount();
+
     // Named methods
     // Page<CardInfo> findAll(Pageable pageable);
     // findById is a named method
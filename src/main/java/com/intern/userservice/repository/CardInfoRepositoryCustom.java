@@ -0,0 +1,33 @@
+package com.intern.userservice.repository;
+
+import com.intern.userservice.dto.BatchItemError;
+import com.intern.userservice.dto.CardInfoCreateDto;
+import com.intern.userservice.model.CardInfo;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+
+public interface CardInfoRepositoryCustom {
+
+    /**
+     * Streams the rows into a transaction-scoped staging table with {@code COPY ... FROM STDIN} and merges them into
+     * {@code card_info}. Must run inside a transaction. Returns the rows that were not inserted, keyed by line number.
+     */
+    List<BatchItemError> copyAndMergeCards(SortedMap<Long, CardInfoCreateDto> cardsByLine);
+
+    /**
+     * Reads every card in id order through a server-side cursor, {@code fetchSize} rows per round trip, without
+     * attaching the entities to the persistence context. Must run inside a transaction.
+     */
+    void forEachCard(int fetchSize, Consumer<CardInfo> action);
+
+    /**
+     * Deletes up to {@code batchSize} cards that expired before {@code expiredBefore}, oldest first, and returns
+     * them. Rows locked by other transactions are skipped rather than waited for.
+     */
+    List<DeletedCard> deleteExpiredBatch(LocalDate expiredBefore, int batchSize);
+
+    record DeletedCard(Long id, Long userId) {}
+}
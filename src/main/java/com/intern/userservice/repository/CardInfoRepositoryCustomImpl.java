@@ -0,0 +1,166 @@
+package com.intern.userservice.repository;
+
+import com.intern.userservice.dto.BatchItemError;
+import com.intern.userservice.dto.CardInfoCreateDto;
+import com.intern.userservice.exception.UserCardPairAlreadyExistsException;
+import com.intern.userservice.model.CardInfo;
+import com.intern.userservice.model.User;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+
+public class CardInfoRepositoryCustomImpl implements CardInfoRepositoryCustom {
+
+    private static final String CREATE_STAGING_TABLE =
+            "CREATE TEMP TABLE IF NOT EXISTS card_info_import (" +
+            "    line_no BIGINT NOT NULL, " +
+            "    number VARCHAR(19) NOT NULL, " +
+            "    holder VARCHAR(150) NOT NULL, " +
+            "    expiration_date DATE NOT NULL, " +
+            "    user_id BIGINT NOT NULL" +
+            ") ON COMMIT DROP";
+
+    private static final String COPY_INTO_STAGING_TABLE =
+            "COPY card_info_import (line_no, number, holder, expiration_date, user_id) FROM STDIN WITH (FORMAT csv)";
+
+    // The first occurrence of a (user_id, number) pair in the file wins; later ones and pairs that already exist
+    // are reported back as conflicts, rows for unknown users as not found.
+    private static final String MERGE_STAGING_TABLE =
+            "WITH ranked AS (" +
+            "    SELECT s.*, " +
+            "           row_number() OVER (PARTITION BY s.user_id, s.number ORDER BY s.line_no) AS rn, " +
+            "           EXISTS (SELECT 1 FROM users u WHERE u.id = s.user_id) AS user_exists " +
+            "    FROM card_info_import s" +
+            "), inserted AS (" +
+            "    INSERT INTO card_info (number, holder, expiration_date, user_id) " +
+            "    SELECT r.number, r.holder, r.expiration_date, r.user_id " +
+            "    FROM ranked r " +
+            "    WHERE r.rn = 1 AND r.user_exists " +
+            "    ORDER BY r.line_no " +
+            "    ON CONFLICT (user_id, number) DO NOTHING " +
+            "    RETURNING user_id, number" +
+            ") " +
+            "SELECT r.line_no, r.user_id, r.number, r.user_exists " +
+            "FROM ranked r " +
+            "WHERE r.rn > 1 " +
+            "   OR NOT EXISTS (SELECT 1 FROM inserted i WHERE i.user_id = r.user_id AND i.number = r.number) " +
+            "ORDER BY r.line_no";
+
+    private static final String CLEAR_STAGING_TABLE = "TRUNCATE card_info_import";
+
+    private static final String SELECT_ALL_CARDS =
+            "SELECT id, number, holder, expiration_date, user_id FROM card_info ORDER BY id";
+
+    // SKIP LOCKED: a sweep never queues behind user traffic or a concurrent sweep, it leaves those rows for later
+    private static final String DELETE_EXPIRED_BATCH =
+            "DELETE FROM card_info WHERE id IN (" +
+            "    SELECT id FROM card_info " +
+            "    WHERE expiration_date < ? " +
+            "    ORDER BY expiration_date, id " +
+            "    LIMIT ? " +
+            "    FOR UPDATE SKIP LOCKED" +
+            ") " +
+            "RETURNING id, user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CardInfoRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<BatchItemError> copyAndMergeCards(SortedMap<Long, CardInfoCreateDto> cardsByLine) {
+        if (cardsByLine.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<BatchItemError>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+            }
+
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_INTO_STAGING_TABLE);
+            try {
+                for (Map.Entry<Long, CardInfoCreateDto> entry : cardsByLine.entrySet()) {
+                    byte[] row = toCsvRow(entry.getKey(), entry.getValue()).getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(row, 0, row.length);
+                }
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+
+            List<BatchItemError> rejected = new ArrayList<>();
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet rs = statement.executeQuery(MERGE_STAGING_TABLE)) {
+                    while (rs.next()) {
+                        rejected.add(toRejection(rs));
+                    }
+                }
+                statement.execute(CLEAR_STAGING_TABLE);
+            }
+            return rejected;
+        });
+    }
+
+    @Override
+    public void forEachCard(int fetchSize, Consumer<CardInfo> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_ALL_CARDS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(CardInfo.builder()
+                .id(rs.getLong("id"))
+                .number(rs.getString("number"))
+                .holder(rs.getString("holder"))
+                .expirationDate(rs.getObject("expiration_date", LocalDate.class))
+                .user(User.builder().id(rs.getLong("user_id")).build())
+                .build()));
+    }
+
+    @Override
+    public List<DeletedCard> deleteExpiredBatch(LocalDate expiredBefore, int batchSize) {
+        return jdbcTemplate.query(DELETE_EXPIRED_BATCH,
+                (rs, rowNum) -> new DeletedCard(rs.getLong("id"), rs.getLong("user_id")),
+                expiredBefore, batchSize);
+    }
+
+    private static BatchItemError toRejection(ResultSet rs) throws SQLException {
+        long line = rs.getLong("line_no");
+        long userId = rs.getLong("user_id");
+        String message = rs.getBoolean("user_exists")
+                ? new UserCardPairAlreadyExistsException(userId, rs.getString("number")).getMessage()
+                : "User not found with id " + userId;
+        return new BatchItemError(line, message);
+    }
+
+    private static String toCsvRow(long line, CardInfoCreateDto card) {
+        return line + "," +
+                quote(card.number()) + "," +
+                quote(card.holder()) + "," +
+                card.expirationDate() + "," +
+                card.userId() + "\n";
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
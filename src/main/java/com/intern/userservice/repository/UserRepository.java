@@ -1,52 +1,71 @@
 package com.intern.userservice.repository;
 
 import com.intern.userservice.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
+    /**
+     * Empty when the e-mail is already taken.
+     */
     @Query(value = "INSERT INTO users (name, surname, birth_date, email) " +
             "VALUES (:name, :surname, :birthDate, :email) " +
+            "ON CONFLICT (email) DO NOTHING " +
             "RETURNING *",
             nativeQuery = true)
-    User createUserNative(@Param("name") String name,
+    Optional<User> createUserNative(@Param("name") String name,
                           @Param("surname") String surname,
                           @Param("birthDate") LocalDate birthDate,
                           @Param("email") String email);
 
-    @Query(value = "UPDATE users " +
-            "SET name = :name, " +
-            "    surname = :surname, " +
-            "    birth_date = :birthDate, " +
-            "    email = :email " +
-            "WHERE id = :id " +
+    @Query(value = "INSERT INTO users (name, surname, birth_date, email) " +
+            "SELECT * FROM unnest(CAST(:names AS varchar[]), CAST(:surnames AS varchar[]), " +
+            "                     CAST(:birthDates AS date[]), CAST(:emails AS varchar[])) " +
+            "ON CONFLICT (email) DO NOTHING " +
             "RETURNING *",
             nativeQuery = true)
-    User updateByIdNative(@Param("id") Long id,
-                          @Param("name") String name,
-                          @Param("surname") String surname,
-                          @Param("birthDate") LocalDate birthDate,
-                          @Param("email") String email);
-
-    @Modifying
-    @Query("DELETE FROM User u WHERE u.id = :id")
-    int deleteByIdJPQL(@Param("id") Long id);
+    List<User> createUsersNative(@Param("names") String[] names,
+                                 @Param("surnames") String[] surnames,
+                                 @Param("birthDates") LocalDate[] birthDates,
+                                 @Param("emails") String[] emails);
 
     @Query("SELECT u FROM User u WHERE u.id = :id")
     Optional<User> findByIdJPQL(@Param("id") Long id);
 
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.cards c WHERE u.id = :id ORDER BY c.id")
+    Optional<User> findWithCardsById(@Param("id") Long id);
+
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
 
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    Slice<User> findAllBy(Pageable pageable);
+
+    @Query(value = "SELECT CAST(GREATEST(reltuples, 0) AS BIGINT) FROM pg_class " +
+            "WHERE oid = CAST('users' AS regclass)",
+            nativeQuery = true)
+    long estimateCount();
+
+    @Query("SELECT u FROM User u WHERE u.id IN :ids")
+    List<User> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
 //    Named methods
 //    Pagination is built-in from PagingAndSortingRepository<T, ID>
 //    Page<User> findAll(Pageable pageable);
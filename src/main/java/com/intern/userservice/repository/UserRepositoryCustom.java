@@ -0,0 +1,43 @@
+package com.intern.userservice.repository;
+
+import com.intern.userservice.model.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Reads every user in id order through a server-side cursor, {@code fetchSize} rows per round trip, without
+     * attaching the entities to the persistence context. Must run inside a transaction.
+     */
+    void forEachUser(int fetchSize, Consumer<User> action);
+
+    /**
+     * Same as {@link #forEachUser} but reads only the e-mail column, in no particular order.
+     */
+    void forEachEmail(int fetchSize, Consumer<String> action);
+
+    /**
+     * Applies the non-null fields to the user in one statement and returns the new row together with the e-mail it
+     * had before. Empty when there is no user with this id; a taken e-mail fails on the unique index.
+     */
+    Optional<UpdatedUser> updateByIdNative(Long id, String name, String surname, LocalDate birthDate, String email);
+
+    /**
+     * Deletes the user, and with it their cards, in one statement. Empty when there is no user with this id.
+     */
+    Optional<DeletedUser> deleteByIdNative(Long id);
+
+    /**
+     * Finds users whose full name has a word starting with {@code query}, or a word close enough to it to be a typo,
+     * best matches first. Both conditions are served by the trigram index on the lower-cased full name.
+     */
+    List<User> searchByName(String query, long offset, int limit);
+
+    record UpdatedUser(User user, String previousEmail) {}
+
+    record DeletedUser(String email, List<Long> cardIds) {}
+}
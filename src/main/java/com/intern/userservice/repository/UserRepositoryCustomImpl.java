@@ -0,0 +1,120 @@
+package com.intern.userservice.repository;
+
+import com.intern.userservice.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String SELECT_ALL_USERS =
+            "SELECT id, name, surname, birth_date, email FROM users ORDER BY id";
+
+    private static final String SELECT_ALL_EMAILS = "SELECT email FROM users";
+
+    // locking the row in the CTE makes the previous e-mail the one this update actually replaced
+    private static final String UPDATE_USER =
+            "WITH previous AS (SELECT id, email FROM users WHERE id = ? FOR UPDATE) " +
+            "UPDATE users u " +
+            "SET name = COALESCE(?, u.name), " +
+            "    surname = COALESCE(?, u.surname), " +
+            "    birth_date = COALESCE(?, u.birth_date), " +
+            "    email = COALESCE(?, u.email) " +
+            "FROM previous p " +
+            "WHERE u.id = p.id " +
+            "RETURNING u.id, u.name, u.surname, u.birth_date, u.email, p.email AS previous_email";
+
+    // the cards go with the user through fk_cardinfo_user; their ids are read from the same snapshot
+    private static final String DELETE_USER =
+            "WITH cards AS (SELECT id FROM card_info WHERE user_id = ?), " +
+            "     deleted AS (DELETE FROM users WHERE id = ? RETURNING email) " +
+            "SELECT d.email, ARRAY(SELECT c.id FROM cards c ORDER BY c.id) AS card_ids " +
+            "FROM deleted d";
+
+    // every condition repeats the idx_users_full_name_trgm expression so the planner can use the index for it
+    private static final String SEARCH_BY_NAME =
+            "SELECT id, name, surname, birth_date, email FROM users " +
+            "WHERE lower(name || ' ' || surname) LIKE ? ESCAPE '\\' " +
+            "   OR lower(name || ' ' || surname) LIKE ? ESCAPE '\\' " +
+            "   OR ? <% lower(name || ' ' || surname) " +
+            "ORDER BY word_similarity(?, lower(name || ' ' || surname)) DESC, id " +
+            "LIMIT ? OFFSET ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void forEachUser(int fetchSize, Consumer<User> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_ALL_USERS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(toUser(rs)));
+    }
+
+    @Override
+    public void forEachEmail(int fetchSize, Consumer<String> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_ALL_EMAILS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(rs.getString("email")));
+    }
+
+    @Override
+    public Optional<UpdatedUser> updateByIdNative(Long id, String name, String surname,
+                                                  LocalDate birthDate, String email) {
+        return jdbcTemplate.query(UPDATE_USER,
+                        (rs, rowNum) -> new UpdatedUser(toUser(rs), rs.getString("previous_email")),
+                        id, name, surname, birthDate, email)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public Optional<DeletedUser> deleteByIdNative(Long id) {
+        return jdbcTemplate.query(DELETE_USER,
+                        (rs, rowNum) -> new DeletedUser(
+                                rs.getString("email"),
+                                List.of((Long[]) rs.getArray("card_ids").getArray())),
+                        id, id)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<User> searchByName(String query, long offset, int limit) {
+        String normalized = query.strip().toLowerCase(Locale.ROOT);
+        String escaped = normalized
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return jdbcTemplate.query(SEARCH_BY_NAME, (rs, rowNum) -> toUser(rs),
+                escaped + "%", "% " + escaped + "%", normalized, normalized, limit, offset);
+    }
+
+    private static User toUser(ResultSet rs) throws SQLException {
+        return User.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .surname(rs.getString("surname"))
+                .birthDate(rs.getObject("birth_date", LocalDate.class))
+                .email(rs.getString("email"))
+                .build();
+    }
+}
@@ -1,11 +1,21 @@
 package com.intern.userservice.service;
 
+import com.intern.userservice.dto.CardImportFormat;
+import com.intern.userservice.dto.CardImportReport;
 import com.intern.userservice.dto.CardInfoCreateDto;
 import com.intern.userservice.dto.CardInfoResponse;
+import com.intern.userservice.dto.CursorPage;
+import com.intern.userservice.dto.ExportFormat;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface CardInfoService {
@@ -13,9 +23,25 @@ public interface CardInfoService {
 
     List<CardInfoResponse> getCardsByUserId(Long userId);
 
+    Map<Long, List<CardInfoResponse>> getCardsByUserIds(Collection<Long> userIds);
+
     Page<CardInfoResponse> getAllCards(Pageable pageable);
 
+    Slice<CardInfoResponse> getCardsSlice(Pageable pageable);
+
+    Page<CardInfoResponse> getAllCardsEstimated(Pageable pageable);
+
+    CursorPage<CardInfoResponse> getCardsAfter(String after, int size);
+
+    CursorPage<CardInfoResponse> getCardsExpiringWithin(int days, String after, int size);
+
+    int purgeExpiredCards(LocalDate expiredBefore, int batchSize);
+
     void deleteCardById(Long id);
 
     CardInfoResponse createCard(CardInfoCreateDto dto);
+
+    CardImportReport importCards(InputStream body, CardImportFormat format);
+
+    void exportCards(OutputStream out, ExportFormat format);
 }
@@ -1,23 +1,47 @@
 package com.intern.userservice.service;
 
+import com.intern.userservice.dto.CursorPage;
+import com.intern.userservice.dto.ExportFormat;
+import com.intern.userservice.dto.UserBatchCreateResponse;
 import com.intern.userservice.dto.UserCreateDto;
 import com.intern.userservice.dto.UserResponse;
 import com.intern.userservice.dto.UserUpdateDto;
+import com.intern.userservice.dto.UserWithCardsResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserService {
     UserResponse createUser(UserCreateDto request);
 
+    UserBatchCreateResponse createUsers(List<UserCreateDto> requests);
+
     Optional<UserResponse> getUserById(Long id);
 
+    Optional<UserWithCardsResponse> getUserWithCards(Long id);
+
+    List<UserResponse> getUsersByIds(Collection<Long> ids);
+
     Page<UserResponse> getAllUsers(Pageable pageable);
 
+    Slice<UserResponse> getUsersSlice(Pageable pageable);
+
+    Page<UserResponse> getAllUsersEstimated(Pageable pageable);
+
+    CursorPage<UserResponse> getUsersAfter(String after, int size);
+
     Optional<UserResponse> getUserByEmail(String email);
 
+    Slice<UserResponse> searchUsersByName(String query, Pageable pageable);
+
     UserResponse updateUser(Long id, UserUpdateDto request);
 
     void deleteUser(Long id);
+
+    void exportUsers(OutputStream out, ExportFormat format);
 }
@@ -0,0 +1,57 @@
+package com.intern.userservice.service.impl;
+
+import com.intern.userservice.config.CardExpirySweepProperties;
+import com.intern.userservice.service.CardInfoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Deletes cards that expired more than the retention period ago. Every batch is its own short transaction, and the
+ * sweep pauses between batches so that it never holds locks for long or saturates the primary.
+ */
+@Component
+@ConditionalOnProperty(prefix = "card-expiry.sweep", name = "enabled", havingValue = "true")
+public class CardExpirySweeper {
+
+    private final CardInfoService cardInfoService;
+    private final CardExpirySweepProperties properties;
+
+    @Autowired
+    public CardExpirySweeper(CardInfoService cardInfoService, CardExpirySweepProperties properties) {
+        this.cardInfoService = cardInfoService;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the number of cards deleted by this run.
+     */
+    @Scheduled(fixedDelayString = "${card-expiry.sweep.interval:1h}",
+            initialDelayString = "${card-expiry.sweep.interval:1h}")
+    public long sweep() {
+        LocalDate expiredBefore = LocalDate.now().minus(properties.getRetention());
+        long total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int deleted = cardInfoService.purgeExpiredCards(expiredBefore, properties.getBatchSize());
+            total += deleted;
+            // a short batch means the backlog is gone, or the rest is locked and waits for the next run
+            if (deleted < properties.getBatchSize() || !pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPauseBetweenBatches());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.intern.userservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intern.userservice.dto.CardImportFormat;
+import com.intern.userservice.dto.CardInfoCreateDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns one line of an NDJSON or CSV ({@code number,holder,expirationDate,userId}) card import into a validated
+ * {@link CardInfoCreateDto}. Lines that cannot be imported raise {@link IllegalArgumentException} with the reason.
+ */
+@Component
+public class CardImportParser {
+
+    private static final String CSV_HEADER_PREFIX = "number,";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Autowired
+    public CardImportParser(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public boolean isHeader(String line, CardImportFormat format) {
+        return format == CardImportFormat.CSV && line.startsWith(CSV_HEADER_PREFIX);
+    }
+
+    public CardInfoCreateDto parse(String line, CardImportFormat format) {
+        CardInfoCreateDto card = format == CardImportFormat.CSV ? parseCsv(line) : parseJson(line);
+
+        Set<ConstraintViolation<CardInfoCreateDto>> violations = validator.validate(card);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return card;
+    }
+
+    private CardInfoCreateDto parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, CardInfoCreateDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private CardInfoCreateDto parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 4) {
+            throw new IllegalArgumentException("Expected 4 fields but found " + fields.size());
+        }
+        try {
+            return new CardInfoCreateDto(
+                    fields.get(0),
+                    fields.get(1),
+                    fields.get(2).isEmpty() ? null : LocalDate.parse(fields.get(2)),
+                    fields.get(3).isEmpty() ? null : Long.valueOf(fields.get(3))
+            );
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed CSV: " + e.getMessage());
+        }
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
@@ -1,95 +1,355 @@
 package com.intern.userservice.service.impl;
 
+import com.intern.userservice.cache.CacheBatch;
+import com.intern.userservice.cache.CacheBatchReader;
+import com.intern.userservice.cache.CacheBatchWriter;
+import com.intern.userservice.config.ExportProperties;
+import com.intern.userservice.config.ReplicaRoutingDataSource;
+import com.intern.userservice.dto.BatchItemError;
+import com.intern.userservice.dto.CardImportChunkError;
+import com.intern.userservice.dto.CardImportFormat;
+import com.intern.userservice.dto.CardImportReport;
 import com.intern.userservice.dto.CardInfoCreateDto;
 import com.intern.userservice.dto.CardInfoResponse;
+import com.intern.userservice.dto.CursorPage;
+import com.intern.userservice.dto.ExportFormat;
 import com.intern.userservice.exception.UserCardPairAlreadyExistsException;
 import com.intern.userservice.mapper.CardInfoMapper;
 import com.intern.userservice.model.CardInfo;
 import com.intern.userservice.repository.CardInfoRepository;
-import com.intern.userservice.repository.UserRepository;
+import com.intern.userservice.repository.CardInfoRepositoryCustom.DeletedCard;
 import com.intern.userservice.service.CardInfoService;
+import com.intern.userservice.service.impl.CursorTokens.DateKey;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache.ValueWrapper;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CardInfoServiceImpl implements CardInfoService {
 
+    private static final int IMPORT_CHUNK_SIZE = 10_000;
+    private static final int IMPORT_MAX_REPORTED_ERRORS = 1_000;
+    private static final String IMPORT_CHUNK_FAILED = "The chunk could not be imported and was rolled back";
+    private static final String USER_FOREIGN_KEY = "fk_cardinfo_user";
+
     private final CardInfoRepository cardInfoRepository;
-    private final UserRepository userRepository;
     private final CardInfoMapper cardInfoMapper;
+    private final CardImportParser cardImportParser;
+    private final CacheBatchWriter cacheBatchWriter;
+    private final CacheBatchReader cacheBatchReader;
+    private final RecordExportWriter recordExportWriter;
+    private final ExportProperties exportProperties;
+    private final TransactionOperations transactionOperations;
 
+    @Transactional(readOnly = true)
     @Override
-    @Cacheable(value = "card", key = "#id")
+    @Cacheable(value = "card", key = "#id", sync = true)
     public Optional<CardInfoResponse> getCardById(Long id) {
         return cardInfoRepository.findByIdNative(id)
                 .map(cardInfoMapper::toCardInfoResponse);
     }
 
+    @Transactional(readOnly = true)
     @Override
-    @Cacheable(value = "userCards", key = "#userId")
+    @Cacheable(value = "userCards", key = "#userId", sync = true)
     public List<CardInfoResponse> getCardsByUserId(Long userId) {
         return cardInfoRepository.getCardInfosByUserId(userId).stream()
                 .map(cardInfoMapper::toCardInfoResponse)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     @Override
-    @Cacheable(value = "cards", key = "#pageable.pageNumber + '-' + #pageable.pageSize")
+    @SuppressWarnings("unchecked")
+    public Map<Long, List<CardInfoResponse>> getCardsByUserIds(Collection<Long> userIds) {
+        Set<Long> requested = new LinkedHashSet<>(userIds);
+        Map<Long, ValueWrapper> cached = cacheBatchReader.getAll("userCards", requested);
+
+        Map<Long, List<CardInfoResponse>> found = new LinkedHashMap<>();
+        cached.forEach((userId, wrapper) -> found.put(userId,
+                wrapper.get() != null ? (List<CardInfoResponse>) wrapper.get() : List.of()));
+
+        List<Long> misses = requested.stream().filter(userId -> !cached.containsKey(userId)).toList();
+        if (!misses.isEmpty()) {
+            // read from the primary like any other load that fills the cache
+            Map<Long, List<CardInfoResponse>> loaded = ReplicaRoutingDataSource
+                    .onPrimary(() -> cardInfoRepository.findByUserIdIn(misses)).stream()
+                    .map(cardInfoMapper::toCardInfoResponse)
+                    .collect(Collectors.groupingBy(CardInfoResponse::userId));
+
+            CacheBatch cacheBatch = cacheBatchWriter.newBatch();
+            misses.forEach(userId -> {
+                List<CardInfoResponse> cards = loaded.getOrDefault(userId, List.of());
+                found.put(userId, cards);
+                cacheBatch.put("userCards", userId, cards);
+            });
+            cacheBatch.execute();
+        }
+
+        Map<Long, List<CardInfoResponse>> result = new LinkedHashMap<>();
+        requested.forEach(userId -> result.put(userId, found.get(userId)));
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    @Cacheable(value = "cards", key = "#pageable.pageNumber + '-' + #pageable.pageSize", sync = true)
     public Page<CardInfoResponse> getAllCards(Pageable pageable) {
         return cardInfoRepository.findAll(pageable)
                 .map(cardInfoMapper::toCardInfoResponse);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    @Cacheable(value = "cards", key = "'slice-' + #pageable.pageNumber + '-' + #pageable.pageSize", sync = true)
+    public Slice<CardInfoResponse> getCardsSlice(Pageable pageable) {
+        return cardInfoRepository.findAllBy(pageable).map(cardInfoMapper::toCardInfoResponse);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    @Cacheable(value = "cards", key = "'estimated-' + #pageable.pageNumber + '-' + #pageable.pageSize", sync = true)
+    public Page<CardInfoResponse> getAllCardsEstimated(Pageable pageable) {
+        Slice<CardInfoResponse> slice = cardInfoRepository.findAllBy(pageable)
+                .map(cardInfoMapper::toCardInfoResponse);
+        // planner statistics lag behind; never report fewer rows than this slice proves exist
+        long seen = pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        return new PageImpl<>(slice.getContent(), pageable, Math.max(cardInfoRepository.estimateCount(), seen));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<CardInfoResponse> getCardsAfter(String after, int size) {
+        List<CardInfo> cards = cardInfoRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorTokens.decode(after), Limit.of(size + 1));
+        List<CardInfoResponse> content = cards.stream()
+                .limit(size)
+                .map(cardInfoMapper::toCardInfoResponse)
+                .toList();
+        String next = cards.size() > size ? CursorTokens.encode(content.get(content.size() - 1).id()) : null;
+        return new CursorPage<>(content, next);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<CardInfoResponse> getCardsExpiringWithin(int days, String after, int size) {
+        LocalDate today = LocalDate.now();
+        // cards expiring today are still valid, so the first page starts right before them
+        DateKey position = CursorTokens.decode(after, new DateKey(today, 0L));
+        List<CardInfo> cards = cardInfoRepository.findExpiringAfter(
+                position.date(), position.id(), today.plusDays(days), size + 1);
+        List<CardInfoResponse> content = cards.stream()
+                .limit(size)
+                .map(cardInfoMapper::toCardInfoResponse)
+                .toList();
+        CardInfoResponse last = content.isEmpty() ? null : content.get(content.size() - 1);
+        String next = cards.size() > size ? CursorTokens.encode(last.expirationDate(), last.id()) : null;
+        return new CursorPage<>(content, next);
+    }
+
     @Transactional
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "card", key = "#id"),
-            @CacheEvict(value = "cards", allEntries = true)
-    })
-    public void deleteCardById(Long id) {
-        if (!cardInfoRepository.existsById(id)) {
-            throw new EntityNotFoundException("Card not found with id " + id);
+    public int purgeExpiredCards(LocalDate expiredBefore, int batchSize) {
+        List<DeletedCard> deleted = cardInfoRepository.deleteExpiredBatch(expiredBefore, batchSize);
+        if (deleted.isEmpty()) {
+            return 0;
         }
-        cardInfoRepository.deleteByIdNative(id);
+
+        CacheBatch cacheBatch = cacheBatchWriter.newBatch();
+        deleted.forEach(card -> cacheBatch.evict("card", card.id()));
+        deleted.stream()
+                .map(DeletedCard::userId)
+                .distinct()
+                .forEach(userId -> cacheBatch
+                        .evict("userCards", userId)
+                        .evict("userWithCards", userId));
+        cacheBatch.clear("cards").executeAfterCommit();
+        return deleted.size();
+    }
+
+    @Transactional
+    @Override
+    public void deleteCardById(Long id) {
+        Long userId = cardInfoRepository.deleteByIdNative(id)
+                .orElseThrow(() -> new EntityNotFoundException("Card not found with id " + id));
+
+        cacheBatchWriter.newBatch()
+                .evict("card", id)
+                .evict("userCards", userId)
+                .evict("userWithCards", userId)
+                .clear("cards")
+                .executeAfterCommit();
     }
 
     @Transactional
     @Override
-    @Caching(
-            put = {
-                    @CachePut(value = "card", key = "#result.id")
-            },
-            evict = {
-                    @CacheEvict(value = "cards", allEntries = true)
-            }
-    )
     public CardInfoResponse createCard(CardInfoCreateDto dto) {
-        if (!userRepository.existsById(dto.userId())) {
-            throw new EntityNotFoundException("User not found with id " + dto.userId());
+        CardInfo saved;
+        try {
+            saved = cardInfoRepository.createCardNative(
+                    dto.number(),
+                    dto.holder(),
+                    dto.expirationDate(),
+                    dto.userId()
+            ).orElseThrow(() -> new UserCardPairAlreadyExistsException(dto.userId(), dto.number()));
+        } catch (DataIntegrityViolationException e) {
+            if (violates(e, USER_FOREIGN_KEY)) {
+                throw new EntityNotFoundException("User not found with id " + dto.userId());
+            }
+            throw e;
         }
 
-        if (cardInfoRepository.existsCardInfoByUserIdAndNumber(dto.userId(), dto.number())) {
-            throw new UserCardPairAlreadyExistsException(dto.userId(), dto.number());
+        CardInfoResponse response = cardInfoMapper.toCardInfoResponse(saved);
+        cacheBatchWriter.newBatch()
+                .put("card", response.id(), response)
+                .evict("userCards", response.userId())
+                .evict("userWithCards", response.userId())
+                .clear("cards")
+                .executeAfterCommit();
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void exportCards(OutputStream out, ExportFormat format) {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), exportProperties.getBufferSize());
+        recordExportWriter.writeHeader(writer, format, CardInfoResponse.class);
+        cardInfoRepository.forEachCard(exportProperties.getFetchSize(),
+                card -> recordExportWriter.write(writer, format, cardInfoMapper.toCardInfoResponse(card)));
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CardImportReport importCards(InputStream body, CardImportFormat format) {
+        long received = 0;
+        long rejected = 0;
+        List<BatchItemError> errors = new ArrayList<>();
+        List<CardImportChunkError> failedChunks = new ArrayList<>();
+        SortedMap<Long, CardInfoCreateDto> chunk = new TreeMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && cardImportParser.isHeader(line, format))) {
+                    continue;
+                }
+                received++;
+                try {
+                    chunk.put(lineNumber, cardImportParser.parse(line, format));
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    addImportError(errors, new BatchItemError(lineNumber, e.getMessage()));
+                }
+                if (chunk.size() >= IMPORT_CHUNK_SIZE) {
+                    rejected += flushImportChunk(chunk, errors, failedChunks);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read card import body", e);
         }
+        rejected += flushImportChunk(chunk, errors, failedChunks);
 
-        CardInfo saved = cardInfoRepository.createCardNative(
-                dto.number(),
-                dto.holder(),
-                dto.expirationDate(),
-                dto.userId()
-        );
-        return cardInfoMapper.toCardInfoResponse(saved);
+        errors.sort(Comparator.comparingLong(BatchItemError::index));
+        return new CardImportReport(received, received - rejected, rejected, errors, failedChunks);
+    }
+
+    /**
+     * Merges the chunk in a transaction of its own, so no connection is held while the client sends the next rows
+     * and a failing chunk loses only its own rows. Returns the number of rows that were not imported.
+     */
+    private long flushImportChunk(SortedMap<Long, CardInfoCreateDto> chunk, List<BatchItemError> errors,
+                                  List<CardImportChunkError> failedChunks) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        try {
+            List<BatchItemError> chunkErrors = transactionOperations.execute(status -> mergeImportChunk(chunk));
+            chunkErrors.forEach(error -> addImportError(errors, error));
+            return chunkErrors.size();
+        } catch (DataAccessException | TransactionException e) {
+            // the database's own message stays in the log, it may name tables, constraints and values
+            log.warn("Card import lines {}-{} were rolled back", chunk.firstKey(), chunk.lastKey(), e);
+            failedChunks.add(new CardImportChunkError(chunk.firstKey(), chunk.lastKey(), chunk.size(),
+                    IMPORT_CHUNK_FAILED));
+            return chunk.size();
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    private List<BatchItemError> mergeImportChunk(SortedMap<Long, CardInfoCreateDto> chunk) {
+        List<BatchItemError> chunkErrors = cardInfoRepository.copyAndMergeCards(chunk);
+
+        CacheBatch cacheBatch = cacheBatchWriter.newBatch();
+        chunk.values().stream()
+                .map(CardInfoCreateDto::userId)
+                .distinct()
+                .forEach(userId -> cacheBatch
+                        .evict("userCards", userId)
+                        .evict("userWithCards", userId));
+        cacheBatch.clear("cards").executeAfterCommit();
+        return chunkErrors;
+    }
+
+    private static boolean violates(DataIntegrityViolationException e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return constraintName.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+
+    private static void addImportError(List<BatchItemError> errors, BatchItemError error) {
+        if (errors.size() < IMPORT_MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
     }
 }
@@ -0,0 +1,77 @@
+package com.intern.userservice.service.impl;
+
+import com.intern.userservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors: the id of the last row a client has seen, base64url-encoded behind a version prefix.
+ * Orderings by date first carry the last row's date as well, as {@code date/id}.
+ */
+final class CursorTokens {
+
+    private static final String PREFIX = "v1:";
+    private static final String DATE_SEPARATOR = "/";
+
+    private CursorTokens() {
+    }
+
+    static String encode(long lastId) {
+        return encodePayload(Long.toString(lastId));
+    }
+
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decodePayload(cursor));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    static String encode(LocalDate lastDate, long lastId) {
+        return encodePayload(lastDate + DATE_SEPARATOR + lastId);
+    }
+
+    /**
+     * Returns {@code start} when there is no cursor yet.
+     */
+    static DateKey decode(String cursor, DateKey start) {
+        if (cursor == null || cursor.isEmpty()) {
+            return start;
+        }
+        try {
+            String payload = decodePayload(cursor);
+            int separator = payload.indexOf(DATE_SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new DateKey(
+                    LocalDate.parse(payload.substring(0, separator)),
+                    Long.parseLong(payload.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    private static String encodePayload(String payload) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + payload).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePayload(String cursor) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(PREFIX)) {
+            throw new InvalidCursorException(cursor);
+        }
+        return decoded.substring(PREFIX.length());
+    }
+
+    record DateKey(LocalDate date, long id) {
+    }
+}
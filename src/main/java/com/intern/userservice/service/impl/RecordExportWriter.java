@@ -0,0 +1,103 @@
+package com.intern.userservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.intern.userservice.dto.ExportFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+
+/**
+ * Writes response records as NDJSON lines or CSV rows whose columns are the record components in declaration order.
+ */
+@Component
+public class RecordExportWriter {
+
+    private static final ClassValue<RecordComponent[]> COMPONENTS = new ClassValue<>() {
+        @Override
+        protected RecordComponent[] computeValue(Class<?> type) {
+            return type.getRecordComponents();
+        }
+    };
+
+    private final ObjectWriter jsonWriter;
+
+    @Autowired
+    public RecordExportWriter(ObjectMapper objectMapper) {
+        // the caller owns and buffers the writer: do not close it, do not flush after every record
+        this.jsonWriter = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void writeHeader(Writer out, ExportFormat format, Class<? extends Record> type) {
+        if (format != ExportFormat.CSV) {
+            return;
+        }
+        try {
+            RecordComponent[] components = COMPONENTS.get(type);
+            for (int i = 0; i < components.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(components[i].getName());
+            }
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(Writer out, ExportFormat format, Record record) {
+        try {
+            if (format == ExportFormat.CSV) {
+                writeCsv(out, record);
+            } else {
+                jsonWriter.writeValue(out, record);
+            }
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsv(Writer out, Record record) throws IOException {
+        RecordComponent[] components = COMPONENTS.get(record.getClass());
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Object value = read(components[i], record);
+            if (value != null) {
+                writeCsvField(out, value.toString());
+            }
+        }
+    }
+
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static Object read(RecordComponent component, Record record) {
+        try {
+            return component.getAccessor().invoke(record);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + component.getName() + " of " + record.getClass(), e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.intern.userservice.service.impl;
+
+import com.intern.userservice.cache.RedisBloomFilter;
+import com.intern.userservice.config.EmailFilterProperties;
+import com.intern.userservice.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Shared membership filter over all user e-mails. A {@code false} from {@link #mightContain} means the e-mail is
+ * definitely not taken; anything else, including Redis being unavailable, has to be confirmed by the database.
+ */
+@Slf4j
+@Component
+public class UserEmailFilter {
+
+    private final RedisBloomFilter filter;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final EmailFilterProperties properties;
+
+    @Autowired
+    public UserEmailFilter(StringRedisTemplate redisTemplate,
+                           UserRepository userRepository,
+                           PlatformTransactionManager transactionManager,
+                           EmailFilterProperties properties) {
+        this.filter = new RedisBloomFilter(redisTemplate, properties.getKey(),
+                properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    public boolean mightContain(String email) {
+        if (email == null) {
+            return false;
+        }
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        try {
+            return filter.mightContain(email);
+        } catch (DataAccessException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns the e-mails that may already be taken, in their original order.
+     */
+    public List<String> filterMightContain(Collection<String> emails) {
+        if (!properties.isEnabled() || emails.isEmpty()) {
+            return List.copyOf(emails);
+        }
+        try {
+            return filter.filterMightContain(emails);
+        } catch (DataAccessException e) {
+            return List.copyOf(emails);
+        }
+    }
+
+    public void add(String email) {
+        if (email != null) {
+            addAll(List.of(email));
+        }
+    }
+
+    /**
+     * Adds the e-mails ahead of the write that stores them, outside its transaction: a filter that runs ahead of the
+     * table only yields false positives. A failed add marks the filter as not built, so every check fails open
+     * until an instance builds it again on startup; only if that fails as well is the error passed on, before
+     * anything has been written.
+     */
+    public void addAll(Collection<String> emails) {
+        if (!properties.isEnabled() || emails.isEmpty()) {
+            return;
+        }
+        try {
+            filter.addAll(emails);
+        } catch (DataAccessException e) {
+            log.warn("Adding {} e-mails to the filter failed, reporting every e-mail as possibly taken",
+                    emails.size(), e);
+            filter.reset();
+        }
+    }
+
+    /**
+     * Builds the filter from {@code users} in the background when no instance has done so yet; until it is built
+     * every e-mail is reported as possibly present.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfMissing() {
+        if (!properties.isEnabled() || filter.isBuilt()) {
+            return;
+        }
+        Thread.ofVirtual().name("email-filter-build").start(this::build);
+    }
+
+    public void build() {
+        filter.build(sink -> readOnlyTransaction.executeWithoutResult(status ->
+                userRepository.forEachEmail(properties.getFetchSize(), sink)));
+    }
+}
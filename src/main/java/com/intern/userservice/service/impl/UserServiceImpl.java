@@ -1,25 +1,62 @@
 package com.intern.userservice.service.impl;
 
+import com.intern.userservice.cache.CacheBatch;
+import com.intern.userservice.cache.CacheBatchReader;
+import com.intern.userservice.cache.CacheBatchWriter;
+import com.intern.userservice.dto.BatchItemError;
+import com.intern.userservice.config.ExportProperties;
+import com.intern.userservice.config.ReplicaRoutingDataSource;
+import com.intern.userservice.dto.CursorPage;
+import com.intern.userservice.dto.ExportFormat;
+import com.intern.userservice.dto.UserBatchCreateResponse;
 import com.intern.userservice.dto.UserCreateDto;
 import com.intern.userservice.dto.UserResponse;
 import com.intern.userservice.dto.UserUpdateDto;
+import com.intern.userservice.dto.UserWithCardsResponse;
 import com.intern.userservice.exception.EmailAlreadyExistsException;
 import com.intern.userservice.mapper.UserMapper;
 import com.intern.userservice.model.User;
 import com.intern.userservice.repository.UserRepository;
+import com.intern.userservice.repository.UserRepositoryCustom.DeletedUser;
+import com.intern.userservice.repository.UserRepositoryCustom.UpdatedUser;
 import com.intern.userservice.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.Cache.ValueWrapper;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,96 +64,272 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final CacheBatchWriter cacheBatchWriter;
+    private final CacheBatchReader cacheBatchReader;
+    private final UserEmailFilter userEmailFilter;
+    private final RecordExportWriter recordExportWriter;
+    private final ExportProperties exportProperties;
+    private final TransactionOperations transactionOperations;
 
-    @Transactional
     @Override
-    @Caching(
-            put = {
-                    @CachePut(value = "user", key = "#result.id"),
-                    @CachePut(value = "userByEmail", key = "#result.email")
-            },
-            evict = {
-                    @CacheEvict(value = "users", allEntries = true)
-            }
-    )
     public UserResponse createUser(UserCreateDto request) {
-        if (userRepository.existsByEmail(request.email())) {
-            throw new EmailAlreadyExistsException(request.email());
-        }
+        // ahead of the insert, so the filter can only err towards a false positive
+        userEmailFilter.add(request.email());
+        return transactionOperations.execute(status -> insertUser(request));
+    }
 
+    private UserResponse insertUser(UserCreateDto request) {
+        // the unique e-mail index decides, in the same statement, so concurrent creates cannot both pass a check
         User created = userRepository.createUserNative(
                 request.name(),
                 request.surname(),
                 request.birthDate(),
                 request.email()
-        );
+        ).orElseThrow(() -> new EmailAlreadyExistsException(request.email()));
 
-        return userMapper.toUserResponse(created);
+        UserResponse response = userMapper.toUserResponse(created);
+        cacheBatchWriter.newBatch()
+                .put("user", response.id(), response)
+                .put("userByEmail", response.email(), response)
+                .put("userWithCards", response.id(), withoutCards(response))
+                .clear("users")
+                .executeAfterCommit();
+        return response;
     }
 
     @Override
-    @Cacheable(value = "user", key = "#id")
+    public UserBatchCreateResponse createUsers(List<UserCreateDto> requests) {
+        List<String> emails = requests.stream().map(UserCreateDto::email).toList();
+        List<String> candidates = userEmailFilter.filterMightContain(emails);
+        // all of them, before the insert: e-mails that end up rejected only cost false positives
+        userEmailFilter.addAll(emails);
+        return transactionOperations.execute(status -> insertUsers(requests, candidates));
+    }
+
+    private UserBatchCreateResponse insertUsers(List<UserCreateDto> requests, List<String> candidates) {
+        Set<String> existingEmails = new HashSet<>(candidates.isEmpty()
+                ? List.of()
+                : userRepository.findExistingEmails(candidates));
+
+        List<BatchItemError> errors = new ArrayList<>();
+        Map<String, Integer> acceptedIndexes = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String email = requests.get(i).email();
+            if (existingEmails.contains(email) || acceptedIndexes.putIfAbsent(email, i) != null) {
+                errors.add(new BatchItemError(i, new EmailAlreadyExistsException(email).getMessage()));
+            }
+        }
+
+        List<UserCreateDto> accepted = acceptedIndexes.values().stream().map(requests::get).toList();
+        List<User> created = accepted.isEmpty() ? List.of() : userRepository.createUsersNative(
+                accepted.stream().map(UserCreateDto::name).toArray(String[]::new),
+                accepted.stream().map(UserCreateDto::surname).toArray(String[]::new),
+                accepted.stream().map(UserCreateDto::birthDate).toArray(LocalDate[]::new),
+                accepted.stream().map(UserCreateDto::email).toArray(String[]::new));
+
+        // rows skipped by ON CONFLICT were taken by a concurrent insert after the uniqueness check
+        Set<String> createdEmails = created.stream().map(User::getEmail).collect(Collectors.toSet());
+        acceptedIndexes.forEach((email, index) -> {
+            if (!createdEmails.contains(email)) {
+                errors.add(new BatchItemError(index, new EmailAlreadyExistsException(email).getMessage()));
+            }
+        });
+        errors.sort(Comparator.comparingLong(BatchItemError::index));
+
+        List<UserResponse> responses = created.stream().map(userMapper::toUserResponse).toList();
+        CacheBatch cacheBatch = cacheBatchWriter.newBatch();
+        responses.forEach(user -> cacheBatch
+                .put("user", user.id(), user)
+                .put("userByEmail", user.email(), user)
+                .put("userWithCards", user.id(), withoutCards(user)));
+        cacheBatch.clear("users").executeAfterCommit();
+
+        return new UserBatchCreateResponse(responses, errors);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    @Cacheable(value = "user", key = "#id", sync = true)
     public Optional<UserResponse> getUserById(Long id) {
         return userRepository.findByIdJPQL(id)
                 .map(userMapper::toUserResponse);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    @Cacheable(value = "userWithCards", key = "#id", sync = true)
+    public Optional<UserWithCardsResponse> getUserWithCards(Long id) {
+        // one round trip: the cards come in the same LEFT JOIN as the user
+        return userRepository.findWithCardsById(id)
+                .map(userMapper::toUserWithCardsResponse);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserResponse> getUsersByIds(Collection<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, ValueWrapper> cached = cacheBatchReader.getAll("user", requested);
+
+        Map<Long, UserResponse> found = new HashMap<>();
+        cached.forEach((id, wrapper) -> {
+            if (wrapper.get() instanceof UserResponse user) {
+                found.put(id, user);
+            }
+        });
+
+        List<Long> misses = requested.stream().filter(id -> !cached.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            // read from the primary like any other load that fills the cache
+            Map<Long, UserResponse> loaded = ReplicaRoutingDataSource
+                    .onPrimary(() -> userRepository.findAllByIdIn(misses)).stream()
+                    .map(userMapper::toUserResponse)
+                    .collect(Collectors.toMap(UserResponse::id, Function.identity()));
+            found.putAll(loaded);
+
+            // unknown ids are cached as null, the same way getUserById caches an empty result
+            CacheBatch cacheBatch = cacheBatchWriter.newBatch();
+            misses.forEach(id -> cacheBatch.put("user", id, loaded.get(id)));
+            cacheBatch.execute();
+        }
+
+        return requested.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    @Transactional(readOnly = true)
     @Override
-    @Cacheable(value = "users", key = "#pageable.pageNumber + '-' + #pageable.pageSize")
+    @Cacheable(value = "users", key = "#pageable.pageNumber + '-' + #pageable.pageSize", sync = true)
     public Page<UserResponse> getAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable).map(userMapper::toUserResponse);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    @Cacheable(value = "users", key = "'slice-' + #pageable.pageNumber + '-' + #pageable.pageSize", sync = true)
+    public Slice<UserResponse> getUsersSlice(Pageable pageable) {
+        return userRepository.findAllBy(pageable).map(userMapper::toUserResponse);
+    }
+
+    @Transactional(readOnly = true)
     @Override
-    @Cacheable(value = "userByEmail", key = "#email")
+    @Cacheable(value = "users", key = "'estimated-' + #pageable.pageNumber + '-' + #pageable.pageSize", sync = true)
+    public Page<UserResponse> getAllUsersEstimated(Pageable pageable) {
+        Slice<UserResponse> slice = userRepository.findAllBy(pageable).map(userMapper::toUserResponse);
+        // planner statistics lag behind; never report fewer rows than this slice proves exist
+        long seen = pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        return new PageImpl<>(slice.getContent(), pageable, Math.max(userRepository.estimateCount(), seen));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<UserResponse> getUsersAfter(String after, int size) {
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(CursorTokens.decode(after), Limit.of(size + 1));
+        List<UserResponse> content = users.stream()
+                .limit(size)
+                .map(userMapper::toUserResponse)
+                .toList();
+        String next = users.size() > size ? CursorTokens.encode(content.get(content.size() - 1).id()) : null;
+        return new CursorPage<>(content, next);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    @Cacheable(value = "userByEmail", key = "#email", sync = true)
     public Optional<UserResponse> getUserByEmail(String email) {
+        if (!userEmailFilter.mightContain(email)) {
+            return Optional.empty();
+        }
         return userRepository.findByEmail(email).map(userMapper::toUserResponse);
     }
 
-    @Transactional
+    // not invalidated by writes: the short TTL of userSearch bounds how stale a result page can be
+    @Transactional(readOnly = true)
+    @Override
+    @Cacheable(value = "userSearch",
+            // normalized like the repository does, whatever the default locale
+            key = "#query.strip().toLowerCase(T(java.util.Locale).ROOT) + '-' + #pageable.pageNumber + '-' + "
+                    + "#pageable.pageSize",
+            sync = true)
+    public Slice<UserResponse> searchUsersByName(String query, Pageable pageable) {
+        List<User> users = userRepository.searchByName(query, pageable.getOffset(), pageable.getPageSize() + 1);
+        List<UserResponse> content = users.stream()
+                .limit(pageable.getPageSize())
+                .map(userMapper::toUserResponse)
+                .toList();
+        return new SliceImpl<>(content, pageable, users.size() > pageable.getPageSize());
+    }
+
     @Override
-    @Caching(
-            put = {
-                    @CachePut(value = "user", key = "#id"),
-                    @CachePut(value = "userByEmail", key = "#result.email")
-            },
-            evict = {
-                    @CacheEvict(value = "users", allEntries = true)
-            }
-    )
     public UserResponse updateUser(Long id, UserUpdateDto request) {
-        User user = userRepository.findByIdJPQL(id)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id " + id));
+        userEmailFilter.add(request.email());
+        return transactionOperations.execute(status -> applyUpdate(id, request));
+    }
 
-        if (userRepository.existsByEmail(request.email())) {
+    private UserResponse applyUpdate(Long id, UserUpdateDto request) {
+        // one round trip: the unique e-mail index rejects a taken address and no row means no such user
+        UpdatedUser updated;
+        try {
+            updated = userRepository.updateByIdNative(
+                    id,
+                    request.name(),
+                    request.surname(),
+                    request.birthDate(),
+                    request.email()
+            ).orElseThrow(() -> new EntityNotFoundException("User not found with id " + id));
+        } catch (DuplicateKeyException e) {
             throw new EmailAlreadyExistsException(request.email());
         }
 
-        userMapper.updateEntityFromDto(request, user);
-
-        User updated = userRepository.updateByIdNative(
-                id,
-                user.getName(),
-                user.getSurname(),
-                user.getBirthDate(),
-                user.getEmail());
-        return userMapper.toUserResponse(updated);
+        UserResponse response = userMapper.toUserResponse(updated.user());
+        CacheBatch cacheBatch = cacheBatchWriter.newBatch()
+                .put("user", id, response)
+                .evict("userWithCards", id);
+        if (!updated.previousEmail().equals(response.email())) {
+            cacheBatch.evict("userByEmail", updated.previousEmail());
+        }
+        cacheBatch
+                .put("userByEmail", response.email(), response)
+                .clear("users")
+                .executeAfterCommit();
+        return response;
     }
 
     @Transactional
     @Override
-    @Caching(
-            evict = {
-                    @CacheEvict(value = "user", key = "#id"),
-                    @CacheEvict(value = "userByEmail", allEntries = true),
-                    @CacheEvict(value = "users", allEntries = true),
-                    @CacheEvict(value = "userCards", key = "#id")
-            }
-    )
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new EntityNotFoundException("User not found with id " + id);
+        DeletedUser deleted = userRepository.deleteByIdNative(id)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id " + id));
+
+        CacheBatch cacheBatch = cacheBatchWriter.newBatch()
+                .evict("user", id)
+                .evict("userByEmail", deleted.email())
+                .evict("userCards", id)
+                .evict("userWithCards", id);
+        deleted.cardIds().forEach(cardId -> cacheBatch.evict("card", cardId));
+        if (!deleted.cardIds().isEmpty()) {
+            cacheBatch.clear("cards");
         }
-        userRepository.deleteByIdJPQL(id);
+        cacheBatch
+                .clear("users")
+                .executeAfterCommit();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void exportUsers(OutputStream out, ExportFormat format) {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), exportProperties.getBufferSize());
+        recordExportWriter.writeHeader(writer, format, UserResponse.class);
+        userRepository.forEachUser(exportProperties.getFetchSize(),
+                user -> recordExportWriter.write(writer, format, userMapper.toUserResponse(user)));
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static UserWithCardsResponse withoutCards(UserResponse user) {
+        return new UserWithCardsResponse(
+                user.id(), user.name(), user.surname(), user.birthDate(), user.email(), List.of());
     }
 }
@@ -0,0 +1,72 @@
+package com.intern.userservice.integration.cache;
+
+import com.intern.userservice.cache.RedisBloomFilter;
+import com.intern.userservice.integration.extension.PostgresTestContainerExtension;
+import com.intern.userservice.integration.extension.RedisTestContainerExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Tag("integration")
+@ExtendWith({RedisTestContainerExtension.class, PostgresTestContainerExtension.class})
+class RedisBloomFilterIntegrationTest {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private RedisBloomFilter filter;
+
+    @BeforeEach
+    void setup() {
+        filter = new RedisBloomFilter(redisTemplate, "filter:test:" + UUID.randomUUID(), 1_000, 0.001);
+    }
+
+    @Test
+    void beforeBuild_everythingMightBePresent() {
+        assertThat(filter.isBuilt()).isFalse();
+        assertThat(filter.mightContain("nobody@example.com")).isTrue();
+    }
+
+    @Test
+    void build_answersDefinitelyAbsentForUnknownValues() {
+        filter.build(sink -> List.of("alice@example.com", "bob@example.com").forEach(sink));
+
+        assertThat(filter.isBuilt()).isTrue();
+        assertThat(filter.mightContain("alice@example.com")).isTrue();
+        assertThat(filter.mightContain("bob@example.com")).isTrue();
+        assertThat(filter.mightContain("nobody@example.com")).isFalse();
+        assertThat(filter.filterMightContain(List.of("nobody@example.com", "bob@example.com", "alice@example.com")))
+                .containsExactly("bob@example.com", "alice@example.com");
+    }
+
+    @Test
+    void build_keepsValuesAddedWhileBuilding() {
+        filter.build(sink -> {
+            sink.accept("alice@example.com");
+            filter.add("carol@example.com");
+        });
+
+        assertThat(filter.mightContain("carol@example.com")).isTrue();
+        assertThat(filter.mightContain("alice@example.com")).isTrue();
+    }
+
+    @Test
+    void add_afterBuild_isVisible() {
+        filter.build(sink -> { });
+
+        filter.addAll(List.of("dave@example.com", "erin@example.com"));
+
+        assertThat(filter.mightContain("dave@example.com")).isTrue();
+        assertThat(filter.mightContain("erin@example.com")).isTrue();
+    }
+}
@@ -0,0 +1,106 @@
+package com.intern.userservice.integration.config;
+
+import com.intern.userservice.config.ReplicaRoutingDataSource;
+import com.intern.userservice.integration.extension.PostgresReplicaTestContainerExtension;
+import com.intern.userservice.integration.extension.PostgresTestContainerExtension;
+import com.intern.userservice.integration.extension.RedisTestContainerExtension;
+import com.intern.userservice.model.User;
+import com.intern.userservice.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Tag("integration")
+@ExtendWith({RedisTestContainerExtension.class, PostgresTestContainerExtension.class,
+        PostgresReplicaTestContainerExtension.class})
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private long seededMaxUserId;
+
+    @DynamicPropertySource
+    static void replicas(DynamicPropertyRegistry registry) {
+        registry.add("datasource.replicas.enabled", () -> "true");
+        registry.add("datasource.replicas.instances[0].url", PostgresReplicaTestContainerExtension::getJdbcUrl);
+        // nothing listens here: the replica must be skipped instead of failing reads
+        registry.add("datasource.replicas.instances[1].url", () -> "jdbc:postgresql://localhost:1/unreachable");
+        registry.add("datasource.replicas.connection-timeout", () -> "250ms");
+    }
+
+    @BeforeEach
+    void setUp() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        seededMaxUserId = readWrite.execute(status ->
+                jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class));
+    }
+
+    @AfterEach
+    void cleanup() {
+        ReplicaRoutingDataSource.unpin();
+        readWrite.executeWithoutResult(status ->
+                jdbcTemplate.update("DELETE FROM users WHERE id > ?", seededMaxUserId));
+    }
+
+    @Test
+    void readOnlyTransactions_goToTheReachableReplica() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(currentDatabase(readOnly)).isEqualTo("replica");
+        }
+        assertThat(currentDatabase(readWrite)).isEqualTo("test");
+    }
+
+    @Test
+    void readOnlyTransaction_doesNotSeeRowWrittenToPrimary() {
+        User created = userRepository.createUserNative(
+                "Rita", "Replica", LocalDate.of(1990, 1, 1), "rita.replica@example.com").orElseThrow();
+
+        assertThat(findByEmail(readOnly, created.getEmail())).isEmpty();
+        assertThat(findByEmail(readWrite, created.getEmail())).isPresent();
+    }
+
+    @Test
+    void pinnedThread_readsItsOwnWriteFromPrimary() {
+        User created = userRepository.createUserNative(
+                "Petra", "Primary", LocalDate.of(1990, 1, 1), "petra.primary@example.com").orElseThrow();
+
+        ReplicaRoutingDataSource.pinToPrimary();
+
+        assertThat(currentDatabase(readOnly)).isEqualTo("test");
+        assertThat(findByEmail(readOnly, created.getEmail())).isPresent();
+    }
+
+    private String currentDatabase(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+    }
+
+    private Optional<User> findByEmail(TransactionTemplate transaction, String email) {
+        return transaction.execute(status -> userRepository.findByEmail(email));
+    }
+}
@@ -0,0 +1,46 @@
+package com.intern.userservice.integration.extension;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * A second, independent PostgreSQL with the same schema and seed data as the primary. It does not replicate, so a
+ * row written through the primary is visible only to reads that were routed there.
+ */
+public class PostgresReplicaTestContainerExtension implements BeforeAllCallback {
+
+    private static final PostgreSQLContainer<?> REPLICA =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:18-alpine"))
+                    .withDatabaseName("replica")
+                    .withUsername("duke")
+                    .withPassword("s3cret");
+
+    static {
+        REPLICA.start();
+
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(new DriverManagerDataSource(
+                REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword()));
+        liquibase.setChangeLog("classpath:liquibase/changelog/master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        try {
+            liquibase.afterPropertiesSet();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not migrate the replica container", e);
+        }
+    }
+
+    public static String getJdbcUrl() {
+        return REPLICA.getJdbcUrl();
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+
+    }
+}
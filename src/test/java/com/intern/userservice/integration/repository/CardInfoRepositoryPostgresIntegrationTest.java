@@ -1,13 +1,17 @@
 package com.intern.userservice.integration.repository;
 
+import com.intern.userservice.dto.BatchItemError;
+import com.intern.userservice.dto.CardInfoCreateDto;
 import com.intern.userservice.integration.extension.PostgresTestContainerExtension;
 import com.intern.userservice.model.CardInfo;
 import com.intern.userservice.repository.CardInfoRepository;
+import com.intern.userservice.repository.CardInfoRepositoryCustom.DeletedCard;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,8 +19,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Tag("integration")
@@ -34,7 +41,7 @@ class CardInfoRepositoryPostgresIntegrationTest {
                 "Test Holder",
                 LocalDate.of(2030, 12, 31),
                 4L // David has no cards in seeded data
-        );
+        ).orElseThrow();
 
         assertThat(created.getId()).isNotNull();
         assertThat(created.getHolder()).isEqualTo("Test Holder");
@@ -45,6 +52,30 @@ class CardInfoRepositoryPostgresIntegrationTest {
         assertThat(found.get().getNumber()).isEqualTo("1234567890123456");
     }
 
+    @Test
+    @Transactional
+    void testCreateCardNative_whenPairExists_returnsEmpty() {
+        Optional<CardInfo> created = cardInfoRepository.createCardNative(
+                "4111111111111111",
+                "Alice Johnson",
+                LocalDate.of(2030, 12, 31),
+                1L // Alice already has this card in seeded data
+        );
+
+        assertThat(created).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void testCreateCardNative_whenUserMissing_failsOnForeignKey() {
+        assertThatThrownBy(() -> cardInfoRepository.createCardNative(
+                "1234567890123456",
+                "Nobody",
+                LocalDate.of(2030, 12, 31),
+                999_999L
+        )).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
     @Test
     void testFindByIdNative() {
         Optional<CardInfo> card = cardInfoRepository.findByIdNative(1L); // Alice’s first card
@@ -55,8 +86,9 @@ class CardInfoRepositoryPostgresIntegrationTest {
     @Test
     @Transactional
     void testDeleteByIdNative() {
-        int deleted = cardInfoRepository.deleteByIdNative(3L); // Bob’s only card
-        assertThat(deleted).isEqualTo(1);
+        Optional<Long> owner = cardInfoRepository.deleteByIdNative(3L); // Bob’s only card
+        assertThat(owner).contains(2L);
+        assertThat(cardInfoRepository.deleteByIdNative(3L)).isEmpty();
 
         Optional<CardInfo> card = cardInfoRepository.findByIdNative(3L);
         assertThat(card).isEmpty();
@@ -108,4 +140,45 @@ class CardInfoRepositoryPostgresIntegrationTest {
         assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(8); // seeded 8 cards
         assertThat(page.getContent().size()).isLessThanOrEqualTo(3);
     }
+
+    @Test
+    @Transactional
+    void testCopyAndMergeCards() {
+        SortedMap<Long, CardInfoCreateDto> rows = new TreeMap<>();
+        rows.put(1L, new CardInfoCreateDto("9999000011112222", "David Brown", LocalDate.of(2030, 1, 31), 4L));
+        rows.put(2L, new CardInfoCreateDto("4111111111111111", "Alice Johnson", LocalDate.of(2030, 1, 31), 1L)); // seeded
+        rows.put(3L, new CardInfoCreateDto("9999000011112222", "David Brown", LocalDate.of(2031, 1, 31), 4L)); // repeat
+        rows.put(4L, new CardInfoCreateDto("9999000011113333", "Nobody Here", LocalDate.of(2030, 1, 31), 999L));
+
+        List<BatchItemError> rejected = cardInfoRepository.copyAndMergeCards(rows);
+
+        assertThat(rejected).extracting(BatchItemError::index).containsExactly(2L, 3L, 4L);
+        assertThat(rejected.get(2).message()).isEqualTo("User not found with id 999");
+        assertThat(cardInfoRepository.getCardInfosByUserId(4L)).hasSize(1);
+    }
+
+    @Test
+    @Transactional
+    void testFindExpiringAfter_pagesInExpirationOrder() {
+        List<CardInfo> firstPage = cardInfoRepository.findExpiringAfter(
+                LocalDate.of(2026, 1, 1), 0L, LocalDate.of(2026, 12, 31), 2);
+        assertThat(firstPage).extracting(CardInfo::getId).containsExactly(1L, 7L); // 2026-05-31, 2026-07-31
+
+        CardInfo last = firstPage.get(1);
+        List<CardInfo> nextPage = cardInfoRepository.findExpiringAfter(
+                last.getExpirationDate(), last.getId(), LocalDate.of(2026, 12, 31), 2);
+        assertThat(nextPage).extracting(CardInfo::getId).containsExactly(3L); // 2026-12-31, inclusive
+    }
+
+    @Test
+    @Transactional
+    void testDeleteExpiredBatch_deletesOldestFirstUpToBatchSize() {
+        List<DeletedCard> first = cardInfoRepository.deleteExpiredBatch(LocalDate.of(2026, 6, 1), 1);
+        assertThat(first).containsExactly(new DeletedCard(4L, 3L)); // Clara's, expired 2025-09-30
+
+        List<DeletedCard> second = cardInfoRepository.deleteExpiredBatch(LocalDate.of(2026, 6, 1), 10);
+        assertThat(second).containsExactly(new DeletedCard(1L, 1L)); // Alice's, expired 2026-05-31
+        assertThat(cardInfoRepository.deleteExpiredBatch(LocalDate.of(2026, 6, 1), 10)).isEmpty();
+        assertThat(cardInfoRepository.findById(1L)).isEmpty();
+    }
 }
@@ -0,0 +1,121 @@
+package com.intern.userservice.integration.repository;
+
+import com.intern.userservice.model.CardInfo;
+import com.intern.userservice.repository.CardInfoRepository;
+import com.intern.userservice.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The card repository against a database migrated with {@code card-info-partitioning} enabled. It gets its own
+ * container so that the shared one keeps the unpartitioned layout.
+ */
+@SpringBootTest(properties = "spring.liquibase.parameters.card-info-partitioning=true")
+@Tag("integration")
+class PartitionedCardInfoRepositoryPostgresIntegrationTest {
+
+    private static final Pattern PARTITION_SCAN = Pattern.compile("card_info_p\\d+\\b");
+
+    private static final PostgreSQLContainer<?> PARTITIONED =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:18-alpine"))
+                    .withDatabaseName("partitioned")
+                    .withUsername("duke")
+                    .withPassword("s3cret");
+
+    static {
+        PARTITIONED.start();
+    }
+
+    @Autowired
+    private CardInfoRepository cardInfoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PARTITIONED::getJdbcUrl);
+        registry.add("spring.datasource.username", PARTITIONED::getUsername);
+        registry.add("spring.datasource.password", PARTITIONED::getPassword);
+    }
+
+    @Test
+    void testMigration_partitionsTableAndKeepsSeededCards() {
+        Integer partitions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = CAST('card_info' AS regclass)", Integer.class);
+
+        assertThat(partitions).isEqualTo(16);
+        assertThat(cardInfoRepository.count()).isEqualTo(8);
+        assertThat(cardInfoRepository.findByIdNative(1L)).get()
+                .extracting(CardInfo::getNumber).isEqualTo("4111111111111111");
+    }
+
+    @Test
+    void testLookupsByUserId_pruneToOnePartition() {
+        assertThat(scannedPartitions("EXPLAIN SELECT * FROM card_info WHERE user_id = 1")).isEqualTo(1);
+        assertThat(scannedPartitions(
+                "EXPLAIN SELECT 1 FROM card_info WHERE user_id = 1 AND number = '4111111111111111'")).isEqualTo(1);
+
+        assertThat(cardInfoRepository.getCardInfosByUserId(3L)).hasSize(3);
+        assertThat(cardInfoRepository.existsCardInfoByUserIdAndNumber(1L, "4111111111111111")).isTrue();
+    }
+
+    @Test
+    @Transactional
+    void testNativeQueries_workAcrossPartitions() {
+        CardInfo created = cardInfoRepository.createCardNative(
+                "1234567890123456", "David Brown", LocalDate.of(2030, 12, 31), 4L).orElseThrow();
+
+        assertThat(created.getId()).isGreaterThan(8L);
+        assertThat(cardInfoRepository.createCardNative(
+                "1234567890123456", "David Brown", LocalDate.of(2031, 1, 31), 4L)).isEmpty();
+        assertThat(cardInfoRepository.findByIdNative(created.getId())).isPresent();
+        assertThat(cardInfoRepository.deleteByIdNative(created.getId())).contains(4L);
+        assertThat(cardInfoRepository.findByIdNative(created.getId())).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void testForeignKey_rejectsUnknownUser() {
+        assertThatThrownBy(() -> cardInfoRepository.createCardNative(
+                "1234567890123456", "Nobody", LocalDate.of(2030, 12, 31), 999_999L))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @Transactional
+    void testForeignKey_cascadesUserDeletes() {
+        userRepository.deleteByIdNative(5L); // Eva, two cards
+
+        assertThat(cardInfoRepository.getCardInfosByUserId(5L)).isEmpty();
+    }
+
+    private long scannedPartitions(String explain) {
+        List<String> plan = jdbcTemplate.queryForList(explain, String.class);
+        return plan.stream()
+                .flatMap(line -> PARTITION_SCAN.matcher(line).results())
+                .map(MatchResult::group)
+                .distinct()
+                .count();
+    }
+}
@@ -1,19 +1,28 @@
 package com.intern.userservice.integration.repository;
 
 import com.intern.userservice.integration.extension.PostgresTestContainerExtension;
+import com.intern.userservice.model.CardInfo;
 import com.intern.userservice.model.User;
+import com.intern.userservice.repository.CardInfoRepository;
 import com.intern.userservice.repository.UserRepository;
+import com.intern.userservice.repository.UserRepositoryCustom.DeletedUser;
+import com.intern.userservice.repository.UserRepositoryCustom.UpdatedUser;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Tag("integration")
@@ -23,6 +32,9 @@ class UserRepositoryPostgresIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CardInfoRepository cardInfoRepository;
+
     @Test
     @Transactional
     void testCreateUserNative() {
@@ -31,7 +43,7 @@ class UserRepositoryPostgresIntegrationTest {
                 "Washington",
                 LocalDate.of(1980, 2, 22),
                 "george.washington@example.com"
-        );
+        ).orElseThrow();
 
         assertThat(created.getId()).isNotNull();
         assertThat(created.getName()).isEqualTo("George");
@@ -39,6 +51,65 @@ class UserRepositoryPostgresIntegrationTest {
         assertThat(created.getEmail()).isEqualTo("george.washington@example.com");
     }
 
+    @Test
+    @Transactional
+    void testCreateUserNative_whenEmailTaken_returnsEmpty() {
+        Optional<User> created = userRepository.createUserNative(
+                "Alicia",
+                "Johnson",
+                LocalDate.of(1991, 1, 1),
+                "alice.johnson@example.com"
+        );
+
+        assertThat(created).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void testCreateUsersNative_skipsConflictingEmails() {
+        List<User> created = userRepository.createUsersNative(
+                new String[]{"Ada", "Alice"},
+                new String[]{"Lovelace", "Johnson"},
+                new LocalDate[]{LocalDate.of(1815, 12, 10), LocalDate.of(1990, 4, 12)},
+                new String[]{"ada.lovelace@example.com", "alice.johnson@example.com"}
+        );
+
+        assertThat(created).hasSize(1);
+        assertThat(created.get(0).getId()).isNotNull();
+        assertThat(created.get(0).getEmail()).isEqualTo("ada.lovelace@example.com");
+    }
+
+    @Test
+    @Transactional
+    void testFindWithCardsById_fetchesCardsInTheSameQuery() {
+        User alice = userRepository.findWithCardsById(1L).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(alice.getCards())).isTrue();
+        assertThat(alice.getCards()).extracting(CardInfo::getNumber)
+                .containsExactly("4111111111111111", "5500000000000004");
+        assertThat(userRepository.findWithCardsById(4L).orElseThrow().getCards()).isEmpty(); // David has none
+    }
+
+    @Test
+    @Transactional
+    void testForEachUser_streamsAllUsersInIdOrder() {
+        List<User> users = new ArrayList<>();
+
+        userRepository.forEachUser(2, users::add);
+
+        assertThat(users).hasSize((int) userRepository.count());
+        assertThat(users).extracting(User::getId).isSorted();
+        assertThat(users.get(0).getEmail()).isEqualTo("alice.johnson@example.com");
+    }
+
+    @Test
+    void testFindExistingEmails() {
+        List<String> existing = userRepository.findExistingEmails(
+                List.of("alice.johnson@example.com", "nobody@example.com", "bob.smith@example.com"));
+
+        assertThat(existing).containsExactlyInAnyOrder("alice.johnson@example.com", "bob.smith@example.com");
+    }
+
     @Test
     @Transactional
     void testFindByIdJPQL() {
@@ -90,27 +161,88 @@ class UserRepositoryPostgresIntegrationTest {
     @Test
     @Transactional
     void testUpdateSeededUser() {
-        User updated = userRepository.updateByIdNative(
+        UpdatedUser updated = userRepository.updateByIdNative(
                 2L,
                 "Robert",
                 "Smith",
                 java.time.LocalDate.of(1985, 9, 23),
                 "robert.smith@example.com"
-        );
+        ).orElseThrow();
 
-        assertThat(updated.getName()).isEqualTo("Robert");
-        assertThat(updated.getEmail()).isEqualTo("robert.smith@example.com");
+        assertThat(updated.user().getName()).isEqualTo("Robert");
+        assertThat(updated.user().getEmail()).isEqualTo("robert.smith@example.com");
+        assertThat(updated.previousEmail()).isEqualTo("bob.smith@example.com");
+    }
+
+    @Test
+    @Transactional
+    void testUpdateSeededUser_keepsFieldsThatAreNull() {
+        UpdatedUser updated = userRepository.updateByIdNative(4L, null, "Browne", null, null).orElseThrow();
+
+        assertThat(updated.user().getName()).isEqualTo("David");
+        assertThat(updated.user().getSurname()).isEqualTo("Browne");
+        assertThat(updated.user().getEmail()).isEqualTo("david.brown@example.com");
+        assertThat(updated.previousEmail()).isEqualTo("david.brown@example.com");
+    }
+
+    @Test
+    @Transactional
+    void testUpdateUnknownUser_returnsEmpty() {
+        assertThat(userRepository.updateByIdNative(999_999L, "Nobody", null, null, null)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void testUpdateToTakenEmail_failsOnUniqueIndex() {
+        assertThatThrownBy(() -> userRepository.updateByIdNative(2L, null, null, null, "alice.johnson@example.com"))
+                .isInstanceOf(DuplicateKeyException.class);
     }
 
     @Test
     @Transactional
     void testDeleteSeededUser() {
-        int deleted = userRepository.deleteByIdJPQL(5L); // Eva
-        assertThat(deleted).isEqualTo(1);
+        List<Long> cardIds = cardInfoRepository.getCardInfosByUserId(5L).stream()
+                .map(CardInfo::getId)
+                .sorted()
+                .toList();
+
+        DeletedUser deleted = userRepository.deleteByIdNative(5L).orElseThrow(); // Eva
+        assertThat(deleted.email()).isEqualTo("eva.davis@example.com");
+        assertThat(deleted.cardIds()).hasSize(2).containsExactlyElementsOf(cardIds);
 
         Optional<User> eva = userRepository.findByIdJPQL(5L);
         assertThat(eva).isEmpty();
+        assertThat(cardInfoRepository.getCardInfosByUserId(5L)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void testDeleteUnknownUser_returnsEmpty() {
+        assertThat(userRepository.deleteByIdNative(999_999L)).isEmpty();
     }
 
+    @Test
+    @Transactional
+    void testSearchByName_matchesWordPrefixesOfNameAndSurname() {
+        List<User> found = userRepository.searchByName("Dav", 0, 10);
+
+        assertThat(found).extracting(User::getEmail)
+                .containsExactly("david.brown@example.com", "eva.davis@example.com");
+        assertThat(userRepository.searchByName("dav", 1, 10)).extracting(User::getEmail)
+                .containsExactly("eva.davis@example.com");
+    }
 
+    @Test
+    @Transactional
+    void testSearchByName_toleratesTypos() {
+        List<User> found = userRepository.searchByName("jonson", 0, 10);
+
+        assertThat(found).extracting(User::getEmail).containsExactly("alice.johnson@example.com");
+    }
+
+    @Test
+    @Transactional
+    void testSearchByName_treatsLikeWildcardsLiterally() {
+        assertThat(userRepository.searchByName("%son", 0, 10)).isEmpty();
+    }
 }
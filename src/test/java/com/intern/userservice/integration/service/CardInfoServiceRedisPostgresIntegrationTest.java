@@ -7,6 +7,7 @@ import com.intern.userservice.integration.extension.RedisTestContainerExtension;
 import com.intern.userservice.model.User;
 import com.intern.userservice.repository.UserRepository;
 import com.intern.userservice.service.CardInfoService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -17,7 +18,7 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -39,12 +40,19 @@ class CardInfoServiceRedisPostgresIntegrationTest {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long seededMaxUserId;
+
     private Cache cardCache;
     private Cache userCardsCache;
     private Cache cardsCache;
 
     @BeforeEach
     void setup() {
+        seededMaxUserId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+
         cardCache = cacheManager.getCache("card");
         userCardsCache = cacheManager.getCache("userCards");
         cardsCache = cacheManager.getCache("cards");
@@ -54,11 +62,17 @@ class CardInfoServiceRedisPostgresIntegrationTest {
         cardsCache.clear();
     }
 
+    // cache writes are applied after commit, so these tests commit and remove their own rows instead of rolling
+    // back; cards go with their users through the cascading foreign key
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM users WHERE id > ?", seededMaxUserId);
+    }
+
     @Test
-    @Transactional
     void createCard_shouldPersistAndCache() {
         // given
-        User user = userRepository.createUserNative("John", "Doe", LocalDate.of(1990,1,1), "john@example.com");
+        User user = userRepository.createUserNative("John", "Doe", LocalDate.of(1990,1,1), "john@example.com").orElseThrow();
         CardInfoCreateDto dto = new CardInfoCreateDto("1234-5678", "John Doe", LocalDate.of(2030,1,1), user.getId());
 
         // when
@@ -70,9 +84,8 @@ class CardInfoServiceRedisPostgresIntegrationTest {
     }
 
     @Test
-    @Transactional
     void getCardById_shouldReturnAndCache() {
-        User user = userRepository.createUserNative("Jane", "Smith", LocalDate.of(1995,5,5), "jane@example.com");
+        User user = userRepository.createUserNative("Jane", "Smith", LocalDate.of(1995,5,5), "jane@example.com").orElseThrow();
         CardInfoResponse created = cardInfoService.createCard(
                 new CardInfoCreateDto("1111-2222", "Jane Smith", LocalDate.of(2031,1,1), user.getId()));
 
@@ -83,9 +96,8 @@ class CardInfoServiceRedisPostgresIntegrationTest {
     }
 
     @Test
-    @Transactional
     void getCardsByUserId_shouldReturnAndCache() {
-        User user = userRepository.createUserNative("Tom", "Jerry", LocalDate.of(1988,8,8), "tom@example.com");
+        User user = userRepository.createUserNative("Tom", "Jerry", LocalDate.of(1988,8,8), "tom@example.com").orElseThrow();
         cardInfoService.createCard(new CardInfoCreateDto("2222-3333", "Tom Jerry", LocalDate.of(2032,1,1), user.getId()));
 
         List<CardInfoResponse> cards = cardInfoService.getCardsByUserId(user.getId());
@@ -95,9 +107,8 @@ class CardInfoServiceRedisPostgresIntegrationTest {
     }
 
     @Test
-    @Transactional
     void getAllCards_shouldReturnAndCache() {
-        User user = userRepository.createUserNative("Alice", "Wonder", LocalDate.of(1992,2,2), "alice@example.com");
+        User user = userRepository.createUserNative("Alice", "Wonder", LocalDate.of(1992,2,2), "alice@example.com").orElseThrow();
         cardInfoService.createCard(new CardInfoCreateDto("3333-4444", "Alice Wonder", LocalDate.of(2033,1,1), user.getId()));
 
         Page<CardInfoResponse> page = cardInfoService.getAllCards(PageRequest.of(0, 10));
@@ -107,16 +118,17 @@ class CardInfoServiceRedisPostgresIntegrationTest {
     }
 
     @Test
-    @Transactional
     void deleteCardById_shouldRemoveAndEvictCache() {
-        User user = userRepository.createUserNative("Del", "User", LocalDate.of(1970,1,1), "del@example.com");
+        User user = userRepository.createUserNative("Del", "User", LocalDate.of(1970,1,1), "del@example.com").orElseThrow();
         CardInfoResponse created = cardInfoService.createCard(
                 new CardInfoCreateDto("4444-5555", "Del User", LocalDate.of(2034,1,1), user.getId()));
 
         cardInfoService.getCardById(created.id());
+        cardInfoService.getCardsByUserId(user.getId());
         cardInfoService.deleteCardById(created.id());
 
         assertThat(cardCache.get(created.id())).isNull();
+        assertThat(userCardsCache.get(user.getId())).isNull();
         assertThat(cardsCache.get("0-10")).isNull();
 
 
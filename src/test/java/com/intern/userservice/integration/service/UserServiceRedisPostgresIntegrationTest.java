@@ -1,12 +1,17 @@
 package com.intern.userservice.integration.service;
 
+import com.intern.userservice.dto.CardInfoCreateDto;
+import com.intern.userservice.dto.CardInfoResponse;
 import com.intern.userservice.dto.UserCreateDto;
 import com.intern.userservice.dto.UserResponse;
 import com.intern.userservice.dto.UserUpdateDto;
+import com.intern.userservice.dto.UserWithCardsResponse;
 import com.intern.userservice.integration.extension.PostgresTestContainerExtension;
 import com.intern.userservice.integration.extension.RedisTestContainerExtension;
 import com.intern.userservice.repository.CardInfoRepository;
+import com.intern.userservice.service.CardInfoService;
 import com.intern.userservice.service.UserService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -17,7 +22,9 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -32,32 +39,57 @@ class UserServiceRedisPostgresIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CardInfoService cardInfoService;
+
     @Autowired
     private CardInfoRepository cardInfoRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long seededMaxUserId;
+
     private Cache userCache;
     private Cache userByEmailCache;
     private Cache usersCache;
     private Cache userCardsCache;
+    private Cache cardCache;
+    private Cache userWithCardsCache;
 
     @BeforeEach
     void setup() {
+        seededMaxUserId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+
         userCache = cacheManager.getCache("user");
         userByEmailCache = cacheManager.getCache("userByEmail");
         usersCache = cacheManager.getCache("users");
         userCardsCache = cacheManager.getCache("userCards");
+        cardCache = cacheManager.getCache("card");
+        userWithCardsCache = cacheManager.getCache("userWithCards");
 
         userCache.clear();
         userByEmailCache.clear();
         usersCache.clear();
         userCardsCache.clear();
+        cardCache.clear();
+        userWithCardsCache.clear();
+    }
+
+    // cache writes are applied after commit, so these tests commit and remove their own rows instead of rolling
+    // back; cards go with their users through the cascading foreign key
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM users WHERE id > ?", seededMaxUserId);
     }
 
     @Test
-    @Transactional
     void createUser_shouldPersistAndCache() {
         UserCreateDto dto = new UserCreateDto("John", "Doe", LocalDate.of(1990,1,1), "john@example.com");
 
@@ -69,7 +101,20 @@ class UserServiceRedisPostgresIntegrationTest {
     }
 
     @Test
-    @Transactional
+    void createUser_whenTransactionRollsBack_leavesCacheUntouched() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Long id = transaction.execute(status -> {
+            status.setRollbackOnly();
+            return userService.createUser(
+                    new UserCreateDto("Roll", "Back", LocalDate.of(1990,1,1), "rollback@example.com")).id();
+        });
+
+        assertThat(userCache.get(id)).isNull();
+        assertThat(userByEmailCache.get("rollback@example.com")).isNull();
+    }
+
+    @Test
     void getUserById_shouldReturnAndCache() {
         UserCreateDto dto = new UserCreateDto("Jane", "Smith", LocalDate.of(1995,5,5), "jane@example.com");
         UserResponse created = userService.createUser(dto);
@@ -82,7 +127,6 @@ class UserServiceRedisPostgresIntegrationTest {
     }
 
     @Test
-    @Transactional
     void getAllUsers_shouldCachePage() {
         userService.createUser(new UserCreateDto("A", "B", LocalDate.of(2000,1,1), "a@example.com"));
 
@@ -93,7 +137,6 @@ class UserServiceRedisPostgresIntegrationTest {
     }
 
     @Test
-    @Transactional
     void getUserByEmail_shouldReturnAndCache() {
         userService.createUser(new UserCreateDto("Tom", "Jerry", LocalDate.of(1988,8,8), "tom@example.com"));
 
@@ -105,7 +148,6 @@ class UserServiceRedisPostgresIntegrationTest {
     }
 
     @Test
-    @Transactional
     void updateUser_shouldUpdateAndRefreshCache() {
         UserResponse created = userService.createUser(
                 new UserCreateDto("Old", "Name", LocalDate.of(1980,1,1), "old@example.com"));
@@ -116,21 +158,47 @@ class UserServiceRedisPostgresIntegrationTest {
         assertThat(updated.email()).isEqualTo("new@example.com");
         assertThat(userCache.get(created.id(), UserResponse.class).email()).isEqualTo("new@example.com");
         assertThat(userByEmailCache.get("new@example.com", UserResponse.class)).isNotNull();
+        assertThat(userByEmailCache.get("old@example.com")).isNull();
+    }
+
+    @Test
+    void getUserWithCards_staysConsistentWithCardMutations() {
+        UserResponse created = userService.createUser(
+                new UserCreateDto("Agg", "User", LocalDate.of(1985, 5, 5), "agg@example.com"));
+        assertThat(userService.getUserWithCards(created.id()).orElseThrow().cards()).isEmpty();
+
+        CardInfoResponse card = cardInfoService.createCard(
+                new CardInfoCreateDto("5555-6666", "Agg User", LocalDate.of(2032, 1, 1), created.id()));
+
+        assertThat(userWithCardsCache.get(created.id())).isNull();
+        UserWithCardsResponse aggregate = userService.getUserWithCards(created.id()).orElseThrow();
+        assertThat(aggregate.email()).isEqualTo("agg@example.com");
+        assertThat(aggregate.cards()).containsExactly(card);
+        assertThat(userWithCardsCache.get(created.id(), UserWithCardsResponse.class)).isEqualTo(aggregate);
+
+        cardInfoService.deleteCardById(card.id());
+
+        assertThat(userWithCardsCache.get(created.id())).isNull();
+        assertThat(userService.getUserWithCards(created.id()).orElseThrow().cards()).isEmpty();
     }
 
     @Test
-    @Transactional
     void deleteUser_shouldRemoveFromDbAndEvictCache() {
         UserResponse created = userService.createUser(
                 new UserCreateDto("Del", "User", LocalDate.of(1970,1,1), "del@example.com"));
-        cardInfoRepository.createCardNative("1234-5678", "John Doe", LocalDate.of(2030, 1, 1), created.id());
+        Long cardId = cardInfoRepository.createCardNative(
+                "1234-5678", "John Doe", LocalDate.of(2030, 1, 1), created.id()).orElseThrow().getId();
+        cardCache.put(cardId, new CardInfoResponse(cardId, "1234-5678", "John Doe", LocalDate.of(2030, 1, 1), created.id()));
 
         userService.getUserById(created.id()); // populate cache
+        userService.getUserWithCards(created.id());
         userService.deleteUser(created.id());
 
         assertThat(userCache.get(created.id())).isNull();
         assertThat(usersCache.get("0-10")).isNull();
         assertThat(userCardsCache.get(created.id())).isNull();
+        assertThat(cardCache.get(cardId)).isNull();
+        assertThat(userWithCardsCache.get(created.id())).isNull();
 
         Optional<UserResponse> user = userService.getUserById(created.id());
         assertThat(user).isEmpty();
@@ -0,0 +1,135 @@
+package com.intern.userservice.unit.cache;
+
+import com.intern.userservice.cache.CacheBatchWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class CacheBatchTest {
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    private Cache userCache;
+    private Cache usersCache;
+    private CacheBatchWriter cacheBatchWriter;
+
+    @BeforeEach
+    void setUp() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(new ConcurrentMapCache("user"), new ConcurrentMapCache("users"),
+                new UnavailableCache("userByEmail")));
+        cacheManager.afterPropertiesSet();
+        userCache = cacheManager.getCache("user");
+        usersCache = cacheManager.getCache("users");
+        cacheBatchWriter = new CacheBatchWriter(cacheManager, connectionFactory);
+
+        userCache.put(2L, "stale");
+        usersCache.put("0-10", "page");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void executeAfterCommit_withoutTransaction_appliesImmediately() {
+        cacheBatchWriter.newBatch()
+                .put("user", 1L, "alice")
+                .evict("user", 2L)
+                .clear("users")
+                .executeAfterCommit();
+
+        assertThat(userCache.get(1L, String.class)).isEqualTo("alice");
+        assertThat(userCache.get(2L)).isNull();
+        assertThat(usersCache.get("0-10")).isNull();
+    }
+
+    @Test
+    void executeAfterCommit_insideTransaction_waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cacheBatchWriter.newBatch()
+                .put("user", 1L, "alice")
+                .evict("user", 2L)
+                .clear("users")
+                .executeAfterCommit();
+
+        assertThat(userCache.get(1L)).isNull();
+        assertThat(userCache.get(2L, String.class)).isEqualTo("stale");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(userCache.get(1L, String.class)).isEqualTo("alice");
+        assertThat(userCache.get(2L)).isNull();
+        assertThat(usersCache.get("0-10")).isNull();
+    }
+
+    @Test
+    void executeAfterCommit_onRollback_leavesCacheUntouched() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cacheBatchWriter.newBatch()
+                .put("user", 1L, "alice")
+                .clear("users")
+                .executeAfterCommit();
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(userCache.get(1L)).isNull();
+        assertThat(usersCache.get("0-10", String.class)).isEqualTo("page");
+    }
+
+    @Test
+    void executeAfterCommit_whenAStepFails_appliesTheOthersAndLetsTheCommitStand() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cacheBatchWriter.newBatch()
+                .evict("userByEmail", "alice@example.com")
+                .put("user", 1L, "alice")
+                .clear("userByEmail")
+                .clear("users")
+                .executeAfterCommit();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(userCache.get(1L, String.class)).isEqualTo("alice");
+        assertThat(usersCache.get("0-10")).isNull();
+    }
+
+    private static class UnavailableCache extends ConcurrentMapCache {
+
+        UnavailableCache(String name) {
+            super(name);
+        }
+
+        @Override
+        public void evict(Object key) {
+            throw new IllegalStateException("unavailable");
+        }
+
+        @Override
+        public void clear() {
+            throw new IllegalStateException("unavailable");
+        }
+    }
+}
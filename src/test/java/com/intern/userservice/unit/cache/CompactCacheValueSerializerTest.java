@@ -0,0 +1,123 @@
+package com.intern.userservice.unit.cache;
+
+import com.intern.userservice.cache.CompactCacheValueSerializer;
+import com.intern.userservice.cache.EntityTaggedValue;
+import com.intern.userservice.dto.CardInfoResponse;
+import com.intern.userservice.dto.UserResponse;
+import com.intern.userservice.dto.UserWithCardsResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class CompactCacheValueSerializerTest {
+
+    private final CompactCacheValueSerializer serializer = new CompactCacheValueSerializer();
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    private final UserResponse user = new UserResponse(
+            1L, "Alice", "Johnson", LocalDate.of(1990, 4, 12), "alice.johnson@example.com");
+    private final CardInfoResponse card = new CardInfoResponse(
+            7L, "4111111111111111", "Alice Johnson", LocalDate.of(2026, 5, 31), 1L);
+
+    @Test
+    void userResponse_roundTripsAndIsSmallerThanJdk() {
+        byte[] bytes = serializer.serialize(user);
+
+        assertThat(bytes[0]).isEqualTo(CompactCacheValueSerializer.FORMAT_VERSION);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(user);
+        assertThat(bytes.length).isLessThan(jdkSerializer.serialize(user).length / 4);
+    }
+
+    @Test
+    void cardResponseWithNullFields_roundTrips() {
+        CardInfoResponse partial = new CardInfoResponse(3L, null, "Bob Smith", null, 2L);
+
+        assertThat(serializer.deserialize(serializer.serialize(partial))).isEqualTo(partial);
+    }
+
+    @Test
+    void userWithCards_roundTripsAndIsSmallerThanJdk() {
+        UserWithCardsResponse aggregate = new UserWithCardsResponse(
+                1L, "Alice", "Johnson", LocalDate.of(1990, 4, 12), "alice.johnson@example.com", List.of(card, card));
+
+        byte[] bytes = serializer.serialize(aggregate);
+
+        assertThat(serializer.deserialize(bytes)).isEqualTo(aggregate);
+        assertThat(bytes.length).isLessThan(jdkSerializer.serialize(aggregate).length / 4);
+    }
+
+    @Test
+    void cardList_roundTrips() {
+        List<CardInfoResponse> cards = List.of(card, card);
+
+        assertThat(serializer.deserialize(serializer.serialize(cards))).isEqualTo(cards);
+    }
+
+    @Test
+    void page_roundTripsWithPageableAndTotal() {
+        Page<UserResponse> page = new PageImpl<>(List.of(user), PageRequest.of(2, 10, Sort.by("email")), 31);
+
+        @SuppressWarnings("unchecked")
+        Page<UserResponse> decoded = (Page<UserResponse>) serializer.deserialize(serializer.serialize(page));
+
+        assertThat(decoded.getContent()).containsExactly(user);
+        assertThat(decoded.getNumber()).isEqualTo(2);
+        assertThat(decoded.getSize()).isEqualTo(10);
+        assertThat(decoded.getTotalElements()).isEqualTo(31);
+        assertThat(decoded.getSort()).isEqualTo(Sort.by("email"));
+    }
+
+    @Test
+    void slice_roundTripsWithHasNext() {
+        Slice<CardInfoResponse> slice = new SliceImpl<>(List.of(card), PageRequest.of(0, 1), true);
+
+        @SuppressWarnings("unchecked")
+        Slice<CardInfoResponse> decoded = (Slice<CardInfoResponse>) serializer.deserialize(serializer.serialize(slice));
+
+        assertThat(decoded).isNotInstanceOf(Page.class);
+        assertThat(decoded.getContent()).containsExactly(card);
+        assertThat(decoded.hasNext()).isTrue();
+        assertThat(decoded.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void nullValue_roundTrips() {
+        assertThat(serializer.deserialize(serializer.serialize(NullValue.INSTANCE))).isSameAs(NullValue.INSTANCE);
+    }
+
+    @Test
+    void legacyJdkEntry_isStillReadable() {
+        assertThat(serializer.deserialize(jdkSerializer.serialize(user))).isEqualTo(user);
+    }
+
+    @Test
+    void unknownFormatVersion_isTreatedAsMiss() {
+        byte[] bytes = serializer.serialize(user);
+        bytes[0] = (byte) (CompactCacheValueSerializer.TAGGED_FORMAT_VERSION + 1);
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void entityTaggedValue_roundTripsUnderItsOwnVersion() {
+        EntityTaggedValue tagged = new EntityTaggedValue(List.of(card), "5d41402abc4b2a76b9719d911017c592");
+
+        byte[] bytes = serializer.serialize(tagged);
+
+        assertThat(bytes[0]).isEqualTo(CompactCacheValueSerializer.TAGGED_FORMAT_VERSION);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(tagged);
+    }
+}
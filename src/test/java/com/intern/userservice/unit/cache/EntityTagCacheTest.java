@@ -0,0 +1,107 @@
+package com.intern.userservice.unit.cache;
+
+import com.intern.userservice.cache.EntityTagCache;
+import com.intern.userservice.cache.EntityTaggedValue;
+import com.intern.userservice.cache.PipelinedCache;
+import com.intern.userservice.dto.UserResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.RedisConnection;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@Tag("unit")
+class EntityTagCacheTest {
+
+    private final UserResponse alice = new UserResponse(
+            1L, "Alice", "Johnson", LocalDate.of(1990, 4, 12), "alice.johnson@example.com");
+    private final UserResponse renamed = new UserResponse(
+            1L, "Alicia", "Johnson", LocalDate.of(1990, 4, 12), "alice.johnson@example.com");
+
+    private Cache delegate;
+    private EntityTagCache cache;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new ConcurrentMapCache("user");
+        cache = new EntityTagCache(delegate);
+    }
+
+    @Test
+    void put_storesValueWithItsTagAndReadsBackThePlainValue() {
+        cache.put(1L, alice);
+
+        assertThat(delegate.get(1L).get()).isEqualTo(new EntityTaggedValue(alice, EntityTagCache.entityTagOf(alice)));
+        assertThat(cache.get(1L).get()).isEqualTo(alice);
+        assertThat(cache.get(1L, UserResponse.class)).isEqualTo(alice);
+        assertThat(cache.getTagged(1L)).isEqualTo(new EntityTaggedValue(alice, EntityTagCache.entityTagOf(alice)));
+    }
+
+    @Test
+    void put_ofChangedValue_changesTag_andEvictDropsIt() {
+        cache.put(1L, alice);
+        String before = cache.getTagged(1L).entityTag();
+
+        cache.put(1L, renamed);
+
+        assertThat(cache.getTagged(1L).entityTag()).isNotEqualTo(before).isEqualTo(EntityTagCache.entityTagOf(renamed));
+
+        cache.evict(1L);
+
+        assertThat(cache.getTagged(1L)).isNull();
+    }
+
+    @Test
+    void get_withLoader_tagsLoadedValue() {
+        assertThat(cache.get(1L, () -> alice)).isEqualTo(alice);
+
+        assertThat(cache.getTagged(1L).entityTag()).isEqualTo(EntityTagCache.entityTagOf(alice));
+    }
+
+    @Test
+    void nullAndUntaggedEntries_haveNoTag() {
+        cache.put(1L, null);
+        delegate.put(2L, alice);
+
+        assertThat(cache.get(1L).get()).isNull();
+        assertThat(cache.getTagged(1L)).isNull();
+        assertThat(cache.get(2L).get()).isEqualTo(alice);
+        assertThat(cache.getTagged(2L)).isNull();
+    }
+
+    @Test
+    void pipelinedOperations_tagOnPutAndUntagOnRead() {
+        PipelinedCache pipelined = mock(PipelinedCache.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        EntityTagCache pipelinedTagCache = new EntityTagCache(pipelined);
+        EntityTaggedValue tagged = new EntityTaggedValue(alice, EntityTagCache.entityTagOf(alice));
+        given(pipelined.getAll(connection, List.of(1L)))
+                .willReturn(Map.of(1L, new SimpleValueWrapper(tagged)));
+
+        pipelinedTagCache.put(connection, 1L, alice);
+        Map<Long, ValueWrapper> hits = pipelinedTagCache.getAll(connection, List.of(1L));
+
+        verify(pipelined).put(connection, 1L, tagged);
+        assertThat(hits.get(1L).get()).isEqualTo(alice);
+    }
+
+    @Test
+    void entityTagOf_isStableForEqualValues() {
+        UserResponse copy = new UserResponse(
+                1L, "Alice", "Johnson", LocalDate.of(1990, 4, 12), "alice.johnson@example.com");
+
+        assertThat(EntityTagCache.entityTagOf(copy)).isEqualTo(EntityTagCache.entityTagOf(alice)).hasSize(32);
+    }
+}
@@ -0,0 +1,63 @@
+package com.intern.userservice.unit.cache;
+
+import com.intern.userservice.cache.CacheGenerations;
+import com.intern.userservice.cache.GenerationalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class GenerationalCacheTest {
+
+    @Mock
+    private CacheGenerations generations;
+
+    private Cache delegate;
+    private GenerationalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new ConcurrentMapCache("users");
+        cache = new GenerationalCache(delegate, generations);
+    }
+
+    @Test
+    void put_storesUnderCurrentGeneration() {
+        given(generations.current("users")).willReturn(3L);
+
+        cache.put("0-10", "page");
+
+        assertThat(delegate.get("3:0-10", String.class)).isEqualTo("page");
+        assertThat(cache.get("0-10", String.class)).isEqualTo("page");
+    }
+
+    @Test
+    void get_afterGenerationMovesOn_misses() {
+        given(generations.current("users")).willReturn(3L);
+        cache.put("0-10", "page");
+
+        given(generations.current("users")).willReturn(4L);
+
+        assertThat(cache.get("0-10")).isNull();
+    }
+
+    @Test
+    void clear_bumpsGenerationWithoutTouchingEntries() {
+        delegate.put("3:0-10", "page");
+
+        cache.clear();
+
+        verify(generations).bump("users");
+        assertThat(delegate.get("3:0-10")).isNotNull();
+    }
+}
@@ -0,0 +1,88 @@
+package com.intern.userservice.unit.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.intern.userservice.cache.CacheInvalidationPublisher;
+import com.intern.userservice.cache.TwoTierCache;
+import com.intern.userservice.cache.TwoTierCacheMetrics;
+import com.intern.userservice.dto.UserResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheMetricsTest {
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    private Cache local;
+    private Cache remote;
+    private TwoTierCache cache;
+    private MeterRegistry registry;
+
+    private final UserResponse alice = new UserResponse(
+            1L, "Alice", "Wonder", LocalDate.of(1990, 1, 1), "alice@example.com");
+
+    @BeforeEach
+    void setUp() {
+        local = new CaffeineCache("user", Caffeine.newBuilder().build());
+        remote = new ConcurrentMapCache("user");
+        cache = new TwoTierCache(local, remote, publisher);
+        registry = new SimpleMeterRegistry();
+        new TwoTierCacheMetrics(cache, Tags.of("cacheManager", "cacheManager")).bindTo(registry);
+    }
+
+    @Test
+    void gets_areCountedPerTier() {
+        remote.put(1L, alice);
+
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+
+        assertThat(counter("cache.gets", "result", "hit")).isEqualTo(2);
+        assertThat(counter("cache.gets", "result", "miss")).isEqualTo(1);
+        assertThat(counter("cache.tier.hits", "tier", "local")).isEqualTo(1);
+        assertThat(counter("cache.tier.hits", "tier", "remote")).isEqualTo(1);
+    }
+
+    @Test
+    void getWithLoader_countsLoadAsMissAndRemoteValueAsHit() {
+        remote.put(1L, alice);
+
+        cache.get(1L, () -> alice);
+        cache.get(2L, () -> alice);
+
+        assertThat(counter("cache.tier.hits", "tier", "remote")).isEqualTo(1);
+        assertThat(counter("cache.gets", "result", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void putsEvictionsAndSize_areReported() {
+        cache.put(1L, alice);
+        cache.put(2L, alice);
+        cache.evict(2L);
+
+        assertThat(counter("cache.puts")).isEqualTo(2);
+        assertThat(counter("cache.evictions")).isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "user").gauge().value()).isEqualTo(1);
+    }
+
+    private double counter(String name, String... tags) {
+        return registry.get(name).tag("cache", "user").tags(tags).functionCounter().count();
+    }
+}
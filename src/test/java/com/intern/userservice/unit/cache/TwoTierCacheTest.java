@@ -0,0 +1,117 @@
+package com.intern.userservice.unit.cache;
+
+import com.intern.userservice.cache.CacheInvalidationPublisher;
+import com.intern.userservice.cache.TwoTierCache;
+import com.intern.userservice.dto.UserResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheTest {
+
+    @Mock
+    private CacheInvalidationPublisher publisher;
+
+    private Cache local;
+    private Cache remote;
+    private TwoTierCache cache;
+
+    private final UserResponse alice = new UserResponse(
+            1L, "Alice", "Wonder", LocalDate.of(1990, 1, 1), "alice@example.com");
+
+    @BeforeEach
+    void setUp() {
+        local = new ConcurrentMapCache("user");
+        remote = new ConcurrentMapCache("user");
+        cache = new TwoTierCache(local, remote, publisher);
+    }
+
+    @Test
+    void get_whenOnlyInRemote_populatesLocal() {
+        remote.put(1L, alice);
+
+        assertThat(cache.get(1L, UserResponse.class)).isEqualTo(alice);
+        assertThat(local.get(1L, UserResponse.class)).isEqualTo(alice);
+        verify(publisher, never()).publish(any(), any());
+    }
+
+    @Test
+    void get_whenInLocal_doesNotTouchRemote() {
+        local.put(1L, alice);
+
+        assertThat(cache.get(1L, UserResponse.class)).isEqualTo(alice);
+        assertThat(remote.get(1L)).isNull();
+    }
+
+    @Test
+    void get_withLoader_loadsOnceAndFillsBothTiers() {
+        UserResponse loaded = cache.get(1L, () -> alice);
+
+        assertThat(loaded).isEqualTo(alice);
+        assertThat(remote.get(1L, UserResponse.class)).isEqualTo(alice);
+        assertThat(local.get(1L, UserResponse.class)).isEqualTo(alice);
+    }
+
+    @Test
+    void getAll_combinesLocalAndRemoteHitsAndFillsLocal() {
+        UserResponse bob = new UserResponse(2L, "Bob", "Builder", LocalDate.of(1985, 5, 5), "bob@example.com");
+        local.put(1L, alice);
+        remote.put(2L, bob);
+
+        Map<Long, Cache.ValueWrapper> hits = cache.getAll(null, List.of(1L, 2L, 3L));
+
+        assertThat(hits).containsOnlyKeys(1L, 2L);
+        assertThat(hits.get(2L).get()).isEqualTo(bob);
+        assertThat(local.get(2L, UserResponse.class)).isEqualTo(bob);
+    }
+
+    @Test
+    void put_writesBothTiersAndBroadcasts() {
+        cache.put(1L, alice);
+
+        assertThat(remote.get(1L, UserResponse.class)).isEqualTo(alice);
+        assertThat(local.get(1L, UserResponse.class)).isEqualTo(alice);
+        verify(publisher).publish("user", 1L);
+    }
+
+    @Test
+    void evict_removesFromBothTiersAndBroadcasts() {
+        cache.put(1L, alice);
+
+        cache.evict(1L);
+
+        assertThat(remote.get(1L)).isNull();
+        assertThat(local.get(1L)).isNull();
+        verify(publisher, times(2)).publish("user", 1L);
+    }
+
+    @Test
+    void clear_broadcastsWholeCacheInvalidation() {
+        cache.put(1L, alice);
+
+        cache.clear();
+
+        assertThat(remote.get(1L)).isNull();
+        assertThat(local.get(1L)).isNull();
+        verify(publisher).publish(eq("user"), isNull());
+    }
+}
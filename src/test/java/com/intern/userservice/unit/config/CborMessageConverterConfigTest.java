@@ -0,0 +1,42 @@
+package com.intern.userservice.unit.config;
+
+import com.intern.userservice.config.CborMessageConverterConfig;
+import com.intern.userservice.dto.UserResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class CborMessageConverterConfigTest {
+
+    private final UserResponse user = new UserResponse(
+            1L, "Alice", "Johnson", LocalDate.of(1990, 4, 12), "alice.johnson@example.com");
+
+    private final MappingJackson2CborHttpMessageConverter converter =
+            new CborMessageConverterConfig().cborHttpMessageConverter(new Jackson2ObjectMapperBuilder());
+
+    @Test
+    void userResponse_roundTripsAndIsSmallerThanJson() throws IOException {
+        MockHttpOutputMessage cbor = new MockHttpOutputMessage();
+        converter.write(user, MediaType.APPLICATION_CBOR, cbor);
+        MockHttpOutputMessage json = new MockHttpOutputMessage();
+        new MappingJackson2HttpMessageConverter(new Jackson2ObjectMapperBuilder().build())
+                .write(user, MediaType.APPLICATION_JSON, json);
+
+        Object read = converter.read(UserResponse.class, new MockHttpInputMessage(cbor.getBodyAsBytes()));
+
+        assertThat(cbor.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(read).isEqualTo(user);
+        assertThat(cbor.getBodyAsBytes().length).isLessThan(json.getBodyAsBytes().length);
+    }
+}
@@ -0,0 +1,60 @@
+package com.intern.userservice.unit.config;
+
+import com.intern.userservice.config.ReadYourWritesFilter;
+import com.intern.userservice.config.ReplicaRoutingDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class ReadYourWritesFilterTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(
+            "primary-until", Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void write_setsCookieAndRunsPinnedToPrimary() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean pinned = pinnedWhileHandling(new MockHttpServletRequest("POST", "/api/users"), response);
+
+        assertThat(pinned).isTrue();
+        assertThat(response.getCookie("primary-until").getValue())
+                .isEqualTo(Long.toString(NOW.plusSeconds(5).toEpochMilli()));
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    @Test
+    void read_isPinnedOnlyWhileTheCookieIsValid() throws Exception {
+        MockHttpServletRequest fresh = new MockHttpServletRequest("GET", "/api/users/1");
+        fresh.setCookies(new Cookie("primary-until", Long.toString(NOW.plusSeconds(3).toEpochMilli())));
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/users/1");
+        expired.setCookies(new Cookie("primary-until", Long.toString(NOW.minusSeconds(1).toEpochMilli())));
+
+        assertThat(pinnedWhileHandling(fresh, new MockHttpServletResponse())).isTrue();
+        assertThat(pinnedWhileHandling(expired, new MockHttpServletResponse())).isFalse();
+        assertThat(pinnedWhileHandling(new MockHttpServletRequest("GET", "/api/users/1"),
+                new MockHttpServletResponse())).isFalse();
+    }
+
+    private boolean pinnedWhileHandling(MockHttpServletRequest request, MockHttpServletResponse response)
+            throws Exception {
+        AtomicReference<Boolean> pinned = new AtomicReference<>();
+        FilterChain chain = (req, res) -> pinned.set(ReplicaRoutingDataSource.isPinnedToPrimary());
+        filter.doFilter(request, response, chain);
+        return pinned.get();
+    }
+}
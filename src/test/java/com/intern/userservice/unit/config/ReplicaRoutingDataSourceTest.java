@@ -0,0 +1,138 @@
+package com.intern.userservice.unit.config;
+
+import com.intern.userservice.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(1);
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource first;
+
+    @Mock
+    private DataSource second;
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    @Test
+    void getConnection_alternatesBetweenHealthyReplicas() throws SQLException {
+        Connection firstConnection = mock(Connection.class);
+        Connection secondConnection = mock(Connection.class);
+        given(first.getConnection()).willReturn(firstConnection);
+        given(second.getConnection()).willReturn(secondConnection);
+        ReplicaRoutingDataSource router = router(Map.of(first, Duration.ZERO, second, Duration.ZERO));
+
+        assertThat(List.of(router.getConnection(), router.getConnection(), router.getConnection()))
+                .containsExactly(firstConnection, secondConnection, firstConnection);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_skipsReplicaThatLagsTooFar() throws SQLException {
+        Connection secondConnection = mock(Connection.class);
+        given(second.getConnection()).willReturn(secondConnection);
+        ReplicaRoutingDataSource router = router(Map.of(first, Duration.ofSeconds(5), second, Duration.ZERO));
+
+        assertThat(router.getConnection()).isSameAs(secondConnection);
+        assertThat(router.getConnection()).isSameAs(secondConnection);
+        verify(first, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_whenEveryReplicaLagsOrFails_fallsBackToPrimary() throws SQLException {
+        Connection primaryConnection = mock(Connection.class);
+        given(primary.getConnection()).willReturn(primaryConnection);
+        given(second.getConnection()).willThrow(new SQLException("connection refused"));
+        ReplicaRoutingDataSource router = router(Map.of(first, Duration.ofSeconds(5), second, Duration.ZERO));
+
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+        // the failed replica is now treated as unreachable and not tried again
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+        verify(second).getConnection();
+    }
+
+    @Test
+    void getConnection_whenPinnedToPrimary_ignoresReplicas() throws SQLException {
+        Connection primaryConnection = mock(Connection.class);
+        given(primary.getConnection()).willReturn(primaryConnection);
+        ReplicaRoutingDataSource router = router(Map.of(first, Duration.ZERO, second, Duration.ZERO));
+
+        ReplicaRoutingDataSource.pinToPrimary();
+
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+        verify(first, never()).getConnection();
+        verify(second, never()).getConnection();
+    }
+
+    @Test
+    void getConnectionWithCredentials_isRoutedLikeTheDefaultOne() throws SQLException {
+        Connection secondConnection = mock(Connection.class);
+        Connection primaryConnection = mock(Connection.class);
+        given(second.getConnection("reporting", "secret")).willReturn(secondConnection);
+        given(primary.getConnection("reporting", "secret")).willReturn(primaryConnection);
+        ReplicaRoutingDataSource router = router(Map.of(first, Duration.ofSeconds(5), second, Duration.ZERO));
+
+        assertThat(router.getConnection("reporting", "secret")).isSameAs(secondConnection);
+
+        ReplicaRoutingDataSource.pinToPrimary();
+
+        assertThat(router.getConnection("reporting", "secret")).isSameAs(primaryConnection);
+        verify(first, never()).getConnection("reporting", "secret");
+    }
+
+    @Test
+    void onPrimary_routesTheActionToThePrimaryAndKeepsAnOuterPin() throws SQLException {
+        Connection primaryConnection = mock(Connection.class);
+        given(primary.getConnection()).willReturn(primaryConnection);
+        ReplicaRoutingDataSource router = router(Map.of(first, Duration.ZERO, second, Duration.ZERO));
+
+        assertThat(ReplicaRoutingDataSource.onPrimary(() -> connect(router))).isSameAs(primaryConnection);
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+
+        ReplicaRoutingDataSource.pinToPrimary();
+        ReplicaRoutingDataSource.onPrimary(() -> connect(router));
+
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isTrue();
+        verify(first, never()).getConnection();
+        verify(second, never()).getConnection();
+    }
+
+    private static Connection connect(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ReplicaRoutingDataSource router(Map<DataSource, Duration> lags) {
+        return new ReplicaRoutingDataSource(primary, List.of(first, second), MAX_LAG, Duration.ofMinutes(1), lags::get);
+    }
+}
@@ -0,0 +1,60 @@
+package com.intern.userservice.unit.service;
+
+import com.intern.userservice.config.CardExpirySweepProperties;
+import com.intern.userservice.service.CardInfoService;
+import com.intern.userservice.service.impl.CardExpirySweeper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class CardExpirySweeperTest {
+
+    @Mock
+    private CardInfoService cardInfoService;
+
+    private CardExpirySweepProperties properties;
+    private CardExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CardExpirySweepProperties();
+        properties.setRetention(Period.ofDays(30));
+        properties.setBatchSize(2);
+        properties.setPauseBetweenBatches(Duration.ZERO);
+        properties.setMaxBatchesPerRun(10);
+        sweeper = new CardExpirySweeper(cardInfoService, properties);
+    }
+
+    @Test
+    void sweep_deletesBatchesUntilOneComesBackShort() {
+        LocalDate expiredBefore = LocalDate.now().minusDays(30);
+        given(cardInfoService.purgeExpiredCards(expiredBefore, 2)).willReturn(2, 2, 1);
+
+        assertThat(sweeper.sweep()).isEqualTo(5);
+        verify(cardInfoService, times(3)).purgeExpiredCards(expiredBefore, 2);
+    }
+
+    @Test
+    void sweep_stopsAtTheBatchLimitOfARun() {
+        properties.setMaxBatchesPerRun(3);
+        given(cardInfoService.purgeExpiredCards(eq(LocalDate.now().minusDays(30)), eq(2))).willReturn(2);
+
+        assertThat(sweeper.sweep()).isEqualTo(6);
+        verify(cardInfoService, times(3)).purgeExpiredCards(LocalDate.now().minusDays(30), 2);
+    }
+}
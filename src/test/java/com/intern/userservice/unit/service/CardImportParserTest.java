@@ -0,0 +1,66 @@
+package com.intern.userservice.unit.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.intern.userservice.dto.CardImportFormat;
+import com.intern.userservice.dto.CardInfoCreateDto;
+import com.intern.userservice.service.impl.CardImportParser;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("unit")
+class CardImportParserTest {
+
+    private final CardImportParser parser = new CardImportParser(
+            JsonMapper.builder().findAndAddModules().build(),
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void parse_ndjsonLine() {
+        CardInfoCreateDto card = parser.parse(
+                "{\"number\":\"4111111111111111\",\"holder\":\"John Doe\",\"expirationDate\":\"2030-12-31\",\"userId\":10}",
+                CardImportFormat.NDJSON);
+
+        assertThat(card).isEqualTo(new CardInfoCreateDto("4111111111111111", "John Doe",
+                LocalDate.of(2030, 12, 31), 10L));
+    }
+
+    @Test
+    void parse_csvLineWithQuotedHolder() {
+        CardInfoCreateDto card = parser.parse(
+                "4111111111111111,\"Doe, \"\"Johnny\"\" John\",2030-12-31,10", CardImportFormat.CSV);
+
+        assertThat(card.holder()).isEqualTo("Doe, \"Johnny\" John");
+        assertThat(card.userId()).isEqualTo(10L);
+    }
+
+    @Test
+    void parse_whenInvalid_reportsConstraintViolations() {
+        assertThatThrownBy(() -> parser.parse("123,Jo,2001-01-01,10", CardImportFormat.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expirationDate: Expiration date must be in the future")
+                .hasMessageContaining("holder: Card holder name length must be in [5, 150]")
+                .hasMessageContaining("number: Card number length must be in [8, 19]");
+    }
+
+    @Test
+    void parse_whenMalformed_rejectsLine() {
+        assertThatThrownBy(() -> parser.parse("{not json", CardImportFormat.NDJSON))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Malformed JSON");
+        assertThatThrownBy(() -> parser.parse("4111111111111111,John Doe,tomorrow,10", CardImportFormat.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Malformed CSV");
+    }
+
+    @Test
+    void isHeader_onlyForCsv() {
+        assertThat(parser.isHeader("number,holder,expirationDate,userId", CardImportFormat.CSV)).isTrue();
+        assertThat(parser.isHeader("number,holder,expirationDate,userId", CardImportFormat.NDJSON)).isFalse();
+    }
+}
@@ -1,14 +1,27 @@
 package com.intern.userservice.unit.service;
 
+import com.intern.userservice.cache.CacheBatch;
+import com.intern.userservice.cache.CacheBatchReader;
+import com.intern.userservice.config.ExportProperties;
+import com.intern.userservice.cache.CacheBatchWriter;
+import com.intern.userservice.dto.BatchItemError;
+import com.intern.userservice.dto.CardImportFormat;
+import com.intern.userservice.dto.CardImportReport;
 import com.intern.userservice.dto.CardInfoCreateDto;
 import com.intern.userservice.dto.CardInfoResponse;
+import com.intern.userservice.dto.CursorPage;
+import com.intern.userservice.dto.ExportFormat;
+import com.intern.userservice.exception.InvalidCursorException;
 import com.intern.userservice.exception.UserCardPairAlreadyExistsException;
 import com.intern.userservice.mapper.CardInfoMapper;
 import com.intern.userservice.model.CardInfo;
 import com.intern.userservice.repository.CardInfoRepository;
-import com.intern.userservice.repository.UserRepository;
+import com.intern.userservice.repository.CardInfoRepositoryCustom.DeletedCard;
+import com.intern.userservice.service.impl.CardImportParser;
 import com.intern.userservice.service.impl.CardInfoServiceImpl;
+import com.intern.userservice.service.impl.RecordExportWriter;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -16,18 +29,39 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.verify;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @Tag("unit")
@@ -38,10 +72,25 @@ class CardInfoServiceImplTest {
     private CardInfoRepository cardInfoRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private CardInfoMapper cardInfoMapper;
 
     @Mock
-    private CardInfoMapper cardInfoMapper;
+    private CardImportParser cardImportParser;
+
+    @Mock
+    private CacheBatchWriter cacheBatchWriter;
+
+    @Mock
+    private CacheBatchReader cacheBatchReader;
+
+    @Mock
+    private RecordExportWriter recordExportWriter;
+
+    @Mock
+    private ExportProperties exportProperties;
+
+    @Mock
+    private TransactionOperations transactionOperations;
 
     @InjectMocks
     private CardInfoServiceImpl cardInfoService;
@@ -72,7 +121,7 @@ class CardInfoServiceImplTest {
 
         verify(cardInfoRepository).findByIdNative(1L);
         verify(cardInfoMapper).toCardInfoResponse(cardInfo);
-        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper, userRepository);
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
     }
 
     @Test
@@ -84,7 +133,7 @@ class CardInfoServiceImplTest {
         assertThat(result).isEmpty();
 
         verify(cardInfoRepository).findByIdNative(1L);
-        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper, userRepository);
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
     }
 
     @Test
@@ -98,7 +147,47 @@ class CardInfoServiceImplTest {
 
         verify(cardInfoRepository).getCardInfosByUserId(10L);
         verify(cardInfoMapper).toCardInfoResponse(cardInfo);
-        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper, userRepository);
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
+    }
+
+    @Test
+    void getCardsByUserIds_servesHitsAndBackfillsMissesInRequestOrder() {
+        CardInfoResponse cached = new CardInfoResponse(2L, "5500000000000004", "Jane Doe",
+                LocalDate.of(2029, 1, 31), 20L);
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
+        given(cacheBatchReader.getAll("userCards", Set.of(10L, 20L, 30L)))
+                .willReturn(Map.of(20L, new SimpleValueWrapper(List.of(cached))));
+        given(cardInfoRepository.findByUserIdIn(List.of(10L, 30L))).willReturn(List.of(cardInfo));
+        given(cardInfoMapper.toCardInfoResponse(cardInfo)).willReturn(cardInfoResponse);
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
+
+        Map<Long, List<CardInfoResponse>> result = cardInfoService.getCardsByUserIds(List.of(10L, 20L, 30L));
+
+        assertThat(result).containsExactly(
+                Map.entry(10L, List.of(cardInfoResponse)),
+                Map.entry(20L, List.of(cached)),
+                Map.entry(30L, List.of()));
+        verify(cacheBatch).put("userCards", 10L, List.of(cardInfoResponse));
+        verify(cacheBatch).put("userCards", 30L, List.of());
+        verify(cacheBatch).execute();
+    }
+
+    @Test
+    void exportCards_streamsEveryRowThroughMapperWithConfiguredFetchSize() {
+        given(exportProperties.getFetchSize()).willReturn(500);
+        given(exportProperties.getBufferSize()).willReturn(1024);
+        given(cardInfoMapper.toCardInfoResponse(cardInfo)).willReturn(cardInfoResponse);
+        willAnswer(invocation -> {
+            Consumer<CardInfo> action = invocation.getArgument(1);
+            action.accept(cardInfo);
+            action.accept(cardInfo);
+            return null;
+        }).given(cardInfoRepository).forEachCard(eq(500), any());
+
+        cardInfoService.exportCards(new ByteArrayOutputStream(), ExportFormat.CSV);
+
+        verify(recordExportWriter).writeHeader(any(), eq(ExportFormat.CSV), eq(CardInfoResponse.class));
+        verify(recordExportWriter, times(2)).write(any(), eq(ExportFormat.CSV), eq(cardInfoResponse));
     }
 
     @Test
@@ -113,53 +202,156 @@ class CardInfoServiceImplTest {
 
         verify(cardInfoRepository).findAll(pageable);
         verify(cardInfoMapper).toCardInfoResponse(cardInfo);
-        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper, userRepository);
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
+    }
+
+    @Test
+    void getAllCardsEstimated_usesPlannerEstimate() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        given(cardInfoRepository.findAllBy(pageable)).willReturn(new SliceImpl<>(List.of(cardInfo), pageable, true));
+        given(cardInfoMapper.toCardInfoResponse(cardInfo)).willReturn(cardInfoResponse);
+        given(cardInfoRepository.estimateCount()).willReturn(25_000_000L);
+
+        Page<CardInfoResponse> result = cardInfoService.getAllCardsEstimated(pageable);
+
+        assertThat(result.getContent()).containsExactly(cardInfoResponse);
+        assertThat(result.getTotalElements()).isEqualTo(25_000_000L);
+
+        verify(cardInfoRepository).findAllBy(pageable);
+        verify(cardInfoRepository).estimateCount();
+        verify(cardInfoMapper).toCardInfoResponse(cardInfo);
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
+    }
+
+    @Test
+    void getCardsAfter_whenLastPage_returnsNoCursor() {
+        given(cardInfoRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(11))).willReturn(List.of(cardInfo));
+        given(cardInfoMapper.toCardInfoResponse(cardInfo)).willReturn(cardInfoResponse);
+
+        CursorPage<CardInfoResponse> result = cardInfoService.getCardsAfter(null, 10);
+
+        assertThat(result.content()).containsExactly(cardInfoResponse);
+        assertThat(result.next()).isNull();
+
+        verify(cardInfoRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(11));
+        verify(cardInfoMapper).toCardInfoResponse(cardInfo);
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
+    }
+
+    @Test
+    void getCardsExpiringWithin_resumesAfterTheDateAndIdOfTheCursor() {
+        CardInfo later = new CardInfo();
+        later.setId(2L);
+        given(cardInfoRepository.findExpiringAfter(any(LocalDate.class), eq(0L), any(LocalDate.class), eq(2)))
+                .willReturn(List.of(cardInfo, later));
+        given(cardInfoMapper.toCardInfoResponse(cardInfo)).willReturn(cardInfoResponse);
+
+        CursorPage<CardInfoResponse> first = cardInfoService.getCardsExpiringWithin(30, null, 1);
+
+        assertThat(first.content()).containsExactly(cardInfoResponse);
+        assertThat(first.next()).isNotNull();
+
+        given(cardInfoRepository.findExpiringAfter(
+                eq(LocalDate.of(2030, 12, 31)), eq(1L), any(LocalDate.class), eq(2))).willReturn(List.of());
+
+        CursorPage<CardInfoResponse> last = cardInfoService.getCardsExpiringWithin(30, first.next(), 1);
+
+        assertThat(last.content()).isEmpty();
+        assertThat(last.next()).isNull();
+    }
+
+    @Test
+    void getCardsExpiringWithin_whenCursorIsMalformed_throws() {
+        assertThatThrownBy(() -> cardInfoService.getCardsExpiringWithin(30, "not-a-cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+        verifyNoMoreInteractions(cardInfoRepository);
+    }
+
+    @Test
+    void purgeExpiredCards_evictsDeletedCardsAndTheirOwners() {
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
+        LocalDate expiredBefore = LocalDate.of(2026, 1, 1);
+        given(cardInfoRepository.deleteExpiredBatch(expiredBefore, 100)).willReturn(List.of(
+                new DeletedCard(1L, 10L), new DeletedCard(2L, 10L), new DeletedCard(3L, 20L)));
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
+
+        int deleted = cardInfoService.purgeExpiredCards(expiredBefore, 100);
+
+        assertThat(deleted).isEqualTo(3);
+        verify(cacheBatch).evict("card", 1L);
+        verify(cacheBatch).evict("card", 2L);
+        verify(cacheBatch).evict("card", 3L);
+        verify(cacheBatch).evict("userCards", 10L);
+        verify(cacheBatch).evict("userWithCards", 10L);
+        verify(cacheBatch).evict("userCards", 20L);
+        verify(cacheBatch).evict("userWithCards", 20L);
+        verify(cacheBatch).clear("cards");
+        verify(cacheBatch).executeAfterCommit();
+        verifyNoMoreInteractions(cacheBatch);
+    }
+
+    @Test
+    void purgeExpiredCards_whenNothingExpired_leavesCachesAlone() {
+        given(cardInfoRepository.deleteExpiredBatch(any(LocalDate.class), eq(100))).willReturn(List.of());
+
+        assertThat(cardInfoService.purgeExpiredCards(LocalDate.of(2026, 1, 1), 100)).isZero();
+        verify(cacheBatchWriter, never()).newBatch();
     }
 
     @Test
     void deleteCardById_whenExists_shouldDelete() {
-        given(cardInfoRepository.existsById(1L)).willReturn(true);
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
+        given(cardInfoRepository.deleteByIdNative(1L)).willReturn(Optional.of(7L));
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
 
         cardInfoService.deleteCardById(1L);
 
-        verify(cardInfoRepository).existsById(1L);
         verify(cardInfoRepository).deleteByIdNative(1L);
-        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper, userRepository);
+        verify(cacheBatch).evict("card", 1L);
+        verify(cacheBatch).evict("userCards", 7L);
+        verify(cacheBatch).evict("userWithCards", 7L);
+        verify(cacheBatch).clear("cards");
+        verify(cacheBatch).executeAfterCommit();
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
     }
 
     @Test
     void deleteCardById_whenNotExists_shouldThrow() {
-        given(cardInfoRepository.existsById(1L)).willReturn(false);
+        given(cardInfoRepository.deleteByIdNative(1L)).willReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardInfoService.deleteCardById(1L))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining("Card not found with id 1");
 
-        verify(cardInfoRepository).existsById(1L);
-        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper, userRepository);
+        verify(cardInfoRepository).deleteByIdNative(1L);
+        verify(cacheBatchWriter, never()).newBatch();
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
     }
 
     @Test
     void createCard_whenValid_shouldCreateCard() {
         CardInfoCreateDto dto = new CardInfoCreateDto("4111111111111111", "John Doe",
                 LocalDate.of(2030, 12, 31), 10L);
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
 
-        given(userRepository.existsById(10L)).willReturn(true);
-        given(cardInfoRepository.existsCardInfoByUserIdAndNumber(10L, "4111111111111111")).willReturn(false);
         given(cardInfoRepository.createCardNative("4111111111111111", "John Doe",
-                LocalDate.of(2030, 12, 31), 10L)).willReturn(cardInfo);
+                LocalDate.of(2030, 12, 31), 10L)).willReturn(Optional.of(cardInfo));
         given(cardInfoMapper.toCardInfoResponse(cardInfo)).willReturn(cardInfoResponse);
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
 
         CardInfoResponse result = cardInfoService.createCard(dto);
 
         assertThat(result).isEqualTo(cardInfoResponse);
 
-        verify(userRepository).existsById(10L);
-        verify(cardInfoRepository).existsCardInfoByUserIdAndNumber(10L, "4111111111111111");
         verify(cardInfoRepository).createCardNative("4111111111111111", "John Doe",
                 LocalDate.of(2030, 12, 31), 10L);
         verify(cardInfoMapper).toCardInfoResponse(cardInfo);
-        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper, userRepository);
+        verify(cacheBatch).put("card", cardInfoResponse.id(), cardInfoResponse);
+        verify(cacheBatch).evict("userCards", cardInfoResponse.userId());
+        verify(cacheBatch).evict("userWithCards", cardInfoResponse.userId());
+        verify(cacheBatch).clear("cards");
+        verify(cacheBatch).executeAfterCommit();
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
     }
 
     @Test
@@ -167,14 +359,28 @@ class CardInfoServiceImplTest {
         CardInfoCreateDto dto = new CardInfoCreateDto("4111111111111111", "John Doe",
                 LocalDate.of(2030, 12, 31), 10L);
 
-        given(userRepository.existsById(10L)).willReturn(false);
+        given(cardInfoRepository.createCardNative("4111111111111111", "John Doe",
+                LocalDate.of(2030, 12, 31), 10L)).willThrow(new DataIntegrityViolationException("insert failed",
+                new ConstraintViolationException("fk violated", null, "fk_cardinfo_user")));
 
         assertThatThrownBy(() -> cardInfoService.createCard(dto))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining("User not found with id 10");
 
-        verify(userRepository).existsById(10L);
-        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper, userRepository);
+        verify(cacheBatchWriter, never()).newBatch();
+    }
+
+    @Test
+    void createCard_whenOtherConstraintFails_rethrows() {
+        CardInfoCreateDto dto = new CardInfoCreateDto("4111111111111111", "John Doe",
+                LocalDate.of(2030, 12, 31), 10L);
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("insert failed",
+                new ConstraintViolationException("check violated", null, "card_info_holder_check"));
+
+        given(cardInfoRepository.createCardNative("4111111111111111", "John Doe",
+                LocalDate.of(2030, 12, 31), 10L)).willThrow(failure);
+
+        assertThatThrownBy(() -> cardInfoService.createCard(dto)).isSameAs(failure);
     }
 
     @Test
@@ -182,14 +388,92 @@ class CardInfoServiceImplTest {
         CardInfoCreateDto dto = new CardInfoCreateDto("4111111111111111", "John Doe",
                 LocalDate.of(2030, 12, 31), 10L);
 
-        given(userRepository.existsById(10L)).willReturn(true);
-        given(cardInfoRepository.existsCardInfoByUserIdAndNumber(10L, "4111111111111111")).willReturn(true);
+        given(cardInfoRepository.createCardNative("4111111111111111", "John Doe",
+                LocalDate.of(2030, 12, 31), 10L)).willReturn(Optional.empty());
 
         assertThatThrownBy(() -> cardInfoService.createCard(dto))
                 .isInstanceOf(UserCardPairAlreadyExistsException.class);
 
-        verify(userRepository).existsById(10L);
-        verify(cardInfoRepository).existsCardInfoByUserIdAndNumber(10L, "4111111111111111");
-        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper, userRepository);
+        verify(cardInfoRepository).createCardNative("4111111111111111", "John Doe",
+                LocalDate.of(2030, 12, 31), 10L);
+        verifyNoMoreInteractions(cardInfoRepository, cardInfoMapper);
+        verify(cacheBatchWriter, never()).newBatch();
+    }
+
+    @Test
+    void importCards_mergesValidRowsAndReportsRejectedLines() {
+        String body = "number,holder,expirationDate,userId\n" +
+                "4111111111111111,John Doe,2030-12-31,10\n" +
+                "\n" +
+                "bad line\n" +
+                "5500000000000004,John Doe,2030-12-31,10\n";
+        CardInfoCreateDto first = new CardInfoCreateDto("4111111111111111", "John Doe",
+                LocalDate.of(2030, 12, 31), 10L);
+        CardInfoCreateDto second = new CardInfoCreateDto("5500000000000004", "John Doe",
+                LocalDate.of(2030, 12, 31), 10L);
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
+
+        given(cardImportParser.isHeader("number,holder,expirationDate,userId", CardImportFormat.CSV)).willReturn(true);
+        given(cardImportParser.parse("4111111111111111,John Doe,2030-12-31,10", CardImportFormat.CSV))
+                .willReturn(first);
+        given(cardImportParser.parse("bad line", CardImportFormat.CSV))
+                .willThrow(new IllegalArgumentException("Expected 4 fields but found 1"));
+        given(cardImportParser.parse("5500000000000004,John Doe,2030-12-31,10", CardImportFormat.CSV))
+                .willReturn(second);
+        given(cardInfoRepository.copyAndMergeCards(new TreeMap<>(Map.of(2L, first, 5L, second))))
+                .willReturn(List.of(new BatchItemError(5, "Card with number 5500000000000004 already exists for user with id 10")));
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
+        givenTransactionsRunCallbacks();
+
+        CardImportReport report = cardInfoService.importCards(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), CardImportFormat.CSV);
+
+        assertThat(report.received()).isEqualTo(3);
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.rejected()).isEqualTo(2);
+        assertThat(report.errors()).extracting(BatchItemError::index).containsExactly(4L, 5L);
+        assertThat(report.failedChunks()).isEmpty();
+        verify(transactionOperations).execute(any());
+        verify(cacheBatch).evict("userCards", 10L);
+        verify(cacheBatch).evict("userWithCards", 10L);
+        verify(cacheBatch).clear("cards");
+        verify(cacheBatch).executeAfterCommit();
+    }
+
+    @Test
+    void importCards_whenChunkFails_reportsItsLinesAsRejectedWithoutEvicting() {
+        String body = "4111111111111111,John Doe,2030-12-31,10\n" +
+                "5500000000000004,John Doe,2030-12-31,11\n";
+        CardInfoCreateDto first = new CardInfoCreateDto("4111111111111111", "John Doe",
+                LocalDate.of(2030, 12, 31), 10L);
+        CardInfoCreateDto second = new CardInfoCreateDto("5500000000000004", "John Doe",
+                LocalDate.of(2030, 12, 31), 11L);
+
+        given(cardImportParser.parse("4111111111111111,John Doe,2030-12-31,10", CardImportFormat.CSV))
+                .willReturn(first);
+        given(cardImportParser.parse("5500000000000004,John Doe,2030-12-31,11", CardImportFormat.CSV))
+                .willReturn(second);
+        given(cardInfoRepository.copyAndMergeCards(any()))
+                .willThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+        givenTransactionsRunCallbacks();
+
+        CardImportReport report = cardInfoService.importCards(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), CardImportFormat.CSV);
+
+        assertThat(report.received()).isEqualTo(2);
+        assertThat(report.imported()).isZero();
+        assertThat(report.rejected()).isEqualTo(2);
+        assertThat(report.failedChunks()).singleElement().satisfies(chunk -> {
+            assertThat(chunk.firstLine()).isEqualTo(1);
+            assertThat(chunk.lastLine()).isEqualTo(2);
+            assertThat(chunk.rows()).isEqualTo(2);
+            assertThat(chunk.message()).isEqualTo("The chunk could not be imported and was rolled back");
+        });
+        verify(cacheBatchWriter, never()).newBatch();
+    }
+
+    private void givenTransactionsRunCallbacks() {
+        given(transactionOperations.execute(any())).willAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 }
@@ -0,0 +1,69 @@
+package com.intern.userservice.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.intern.userservice.dto.CardInfoResponse;
+import com.intern.userservice.dto.ExportFormat;
+import com.intern.userservice.dto.UserResponse;
+import com.intern.userservice.service.impl.RecordExportWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class RecordExportWriterTest {
+
+    private final RecordExportWriter writer = new RecordExportWriter(new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+    private final UserResponse user = new UserResponse(
+            1L, "Alice", "Johnson", LocalDate.of(1990, 4, 12), "alice@example.com");
+
+    @Test
+    void csv_writesHeaderFromRecordComponentsAndRows() {
+        StringWriter out = new StringWriter();
+
+        writer.writeHeader(out, ExportFormat.CSV, UserResponse.class);
+        writer.write(out, ExportFormat.CSV, user);
+
+        assertThat(out).hasToString("""
+                id,name,surname,birthDate,email
+                1,Alice,Johnson,1990-04-12,alice@example.com
+                """);
+    }
+
+    @Test
+    void csv_quotesFieldsWithSeparatorsAndLeavesNullsEmpty() {
+        StringWriter out = new StringWriter();
+
+        writer.write(out, ExportFormat.CSV, new CardInfoResponse(7L, null, "Doe, \"JD\" John", null, 1L));
+
+        assertThat(out).hasToString("7,,\"Doe, \"\"JD\"\" John\",,1\n");
+    }
+
+    @Test
+    void ndjson_writesOneObjectPerLineWithoutHeader() {
+        StringWriter out = new StringWriter();
+
+        writer.writeHeader(out, ExportFormat.NDJSON, UserResponse.class);
+        writer.write(out, ExportFormat.NDJSON, user);
+        writer.write(out, ExportFormat.NDJSON, user);
+
+        String line = "{\"id\":1,\"name\":\"Alice\",\"surname\":\"Johnson\",\"birthDate\":\"1990-04-12\","
+                + "\"email\":\"alice@example.com\"}\n";
+        assertThat(out).hasToString(line + line);
+    }
+
+    @Test
+    void fromAccept_picksCsvOnlyWhenAskedFor() {
+        assertThat(ExportFormat.fromAccept("text/csv")).isEqualTo(ExportFormat.CSV);
+        assertThat(ExportFormat.fromAccept("application/x-ndjson, text/csv;q=0.5")).isEqualTo(ExportFormat.CSV);
+        assertThat(ExportFormat.fromAccept("*/*")).isEqualTo(ExportFormat.NDJSON);
+    }
+}
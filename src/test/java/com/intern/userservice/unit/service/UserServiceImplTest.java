@@ -1,37 +1,61 @@
 package com.intern.userservice.unit.service;
 
+import com.intern.userservice.cache.CacheBatch;
+import com.intern.userservice.cache.CacheBatchReader;
+import com.intern.userservice.cache.CacheBatchWriter;
+import com.intern.userservice.dto.BatchItemError;
+import com.intern.userservice.dto.CursorPage;
+import com.intern.userservice.dto.UserBatchCreateResponse;
 import com.intern.userservice.dto.UserCreateDto;
 import com.intern.userservice.dto.UserResponse;
 import com.intern.userservice.dto.UserUpdateDto;
+import com.intern.userservice.dto.UserWithCardsResponse;
 import com.intern.userservice.exception.EmailAlreadyExistsException;
+import com.intern.userservice.exception.InvalidCursorException;
 import com.intern.userservice.mapper.UserMapper;
 import com.intern.userservice.model.User;
 import com.intern.userservice.repository.UserRepository;
+import com.intern.userservice.repository.UserRepositoryCustom.DeletedUser;
+import com.intern.userservice.repository.UserRepositoryCustom.UpdatedUser;
+import com.intern.userservice.service.impl.UserEmailFilter;
 import com.intern.userservice.service.impl.UserServiceImpl;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @Tag("unit")
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +67,18 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private CacheBatchWriter cacheBatchWriter;
+
+    @Mock
+    private CacheBatchReader cacheBatchReader;
+
+    @Mock
+    private UserEmailFilter userEmailFilter;
+
+    @Mock
+    private TransactionOperations transactionOperations;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -86,41 +122,117 @@ class UserServiceImplTest {
 
     @Test
     void createUser_whenEmailDoesNotExist_createsAndReturnsResponse() {
-        given(userRepository.existsByEmail("alice@example.com")).willReturn(false);
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
         given(userRepository.createUserNative(
                 "Alice",
                 "Wonder",
                 LocalDate.of(1990, 1, 1),
                 "alice@example.com"
-        )).willReturn(sampleUser);
+        )).willReturn(Optional.of(sampleUser));
         given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
+        givenTransactionsRunCallbacks();
 
         UserResponse result = userService.createUser(createDto);
 
         assertThat(result).isEqualTo(sampleResponse);
 
-        verify(userRepository).existsByEmail("alice@example.com");
         verify(userRepository).createUserNative(
                 "Alice",
                 "Wonder",
                 LocalDate.of(1990, 1, 1),
                 "alice@example.com"
         );
+        verify(userRepository, never()).existsByEmail(any());
+        InOrder inOrder = inOrder(userEmailFilter, userRepository);
+        inOrder.verify(userEmailFilter).add("alice@example.com");
+        inOrder.verify(userRepository).createUserNative(any(), any(), any(), any());
         verify(userMapper).toUserResponse(sampleUser);
+        verify(cacheBatch).put("user", 1L, sampleResponse);
+        verify(cacheBatch).put("userByEmail", "alice@example.com", sampleResponse);
+        verify(cacheBatch).put("userWithCards", 1L, new UserWithCardsResponse(
+                1L, "Alice", "Wonder", LocalDate.of(1990, 1, 1), "alice@example.com", List.of()));
+        verify(cacheBatch).clear("users");
+        verify(cacheBatch).executeAfterCommit();
     }
 
     @Test
     void createUser_whenEmailAlreadyExists_throwsException() {
-        given(userRepository.existsByEmail("alice@example.com")).willReturn(true);
+        given(userRepository.createUserNative("Alice", "Wonder", LocalDate.of(1990, 1, 1), "alice@example.com"))
+                .willReturn(Optional.empty());
+        givenTransactionsRunCallbacks();
 
         assertThatThrownBy(() -> userService.createUser(createDto))
                 .isInstanceOf(EmailAlreadyExistsException.class)
                 .hasMessageContaining("alice@example.com");
 
-        verify(userRepository).existsByEmail("alice@example.com");
-        verify(userRepository, never()).createUserNative(any(), any(), any(), any());
+        verify(cacheBatchWriter, never()).newBatch();
+    }
+
+    @Test
+    void createUsers_reportsExistingAndDuplicateEmailsAndCachesCreated() {
+        UserCreateDto existing = new UserCreateDto("Bob", "Smith", LocalDate.of(1985, 9, 23), "bob@example.com");
+        UserCreateDto duplicate = new UserCreateDto("Alicia", "Wonder", LocalDate.of(1991, 1, 1), "alice@example.com");
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
+
+        given(userEmailFilter.filterMightContain(List.of("alice@example.com", "bob@example.com", "alice@example.com")))
+                .willReturn(List.of("bob@example.com"));
+        given(userRepository.findExistingEmails(List.of("bob@example.com")))
+                .willReturn(List.of("bob@example.com"));
+        given(userRepository.createUsersNative(
+                new String[]{"Alice"},
+                new String[]{"Wonder"},
+                new LocalDate[]{LocalDate.of(1990, 1, 1)},
+                new String[]{"alice@example.com"}
+        )).willReturn(List.of(sampleUser));
+        given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
+        givenTransactionsRunCallbacks();
+
+        UserBatchCreateResponse result = userService.createUsers(List.of(createDto, existing, duplicate));
+
+        assertThat(result.created()).containsExactly(sampleResponse);
+        assertThat(result.errors()).extracting(BatchItemError::index).containsExactly(1L, 2L);
+        assertThat(result.errors().get(0).message()).contains("bob@example.com");
+        verify(cacheBatch).put("user", 1L, sampleResponse);
+        verify(cacheBatch).put("userByEmail", "alice@example.com", sampleResponse);
+        verify(cacheBatch).put(eq("userWithCards"), eq(1L), any(UserWithCardsResponse.class));
+        verify(cacheBatch).clear("users");
+        verify(cacheBatch).executeAfterCommit();
+    }
+
+    @Test
+    void createUsers_whenFilterRulesAllEmailsOut_skipsExistenceQuery() {
+        given(userEmailFilter.filterMightContain(List.of("alice@example.com"))).willReturn(List.of());
+        given(userRepository.createUsersNative(any(), any(), any(), any())).willReturn(List.of(sampleUser));
+        given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
+        given(cacheBatchWriter.newBatch()).willReturn(mock(CacheBatch.class, RETURNS_SELF));
+        givenTransactionsRunCallbacks();
+
+        UserBatchCreateResponse result = userService.createUsers(List.of(createDto));
+
+        assertThat(result.created()).containsExactly(sampleResponse);
+        verify(userRepository, never()).findExistingEmails(any());
+        InOrder inOrder = inOrder(userEmailFilter, userRepository);
+        inOrder.verify(userEmailFilter).filterMightContain(List.of("alice@example.com"));
+        inOrder.verify(userEmailFilter).addAll(List.of("alice@example.com"));
+        inOrder.verify(userRepository).createUsersNative(any(), any(), any(), any());
     }
 
+    @Test
+    void createUsers_whenRowLostToConcurrentInsert_reportsConflict() {
+        given(userEmailFilter.filterMightContain(List.of("alice@example.com"))).willReturn(List.of("alice@example.com"));
+        given(userRepository.findExistingEmails(List.of("alice@example.com"))).willReturn(List.of());
+        given(userRepository.createUsersNative(any(), any(), any(), any())).willReturn(List.of());
+        given(cacheBatchWriter.newBatch()).willReturn(mock(CacheBatch.class, RETURNS_SELF));
+        givenTransactionsRunCallbacks();
+
+        UserBatchCreateResponse result = userService.createUsers(List.of(createDto));
+
+        assertThat(result.created()).isEmpty();
+        assertThat(result.errors()).containsExactly(
+                new BatchItemError(0, "Email alice@example.com is already in use"));
+    }
 
     @Test
     void getUserById_whenFound_returnsResponse() {
@@ -134,6 +246,25 @@ class UserServiceImplTest {
         verify(userRepository).findByIdJPQL(1L);
     }
 
+    @Test
+    void getUserWithCards_whenFound_mapsUserAndCardsFromOneQuery() {
+        UserWithCardsResponse aggregate = new UserWithCardsResponse(
+                1L, "Alice", "Wonder", LocalDate.of(1990, 1, 1), "alice@example.com", List.of());
+        given(userRepository.findWithCardsById(1L)).willReturn(Optional.of(sampleUser));
+        given(userMapper.toUserWithCardsResponse(sampleUser)).willReturn(aggregate);
+
+        assertThat(userService.getUserWithCards(1L)).contains(aggregate);
+        verify(userRepository).findWithCardsById(1L);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void getUserWithCards_whenNotExists_returnsEmpty() {
+        given(userRepository.findWithCardsById(2L)).willReturn(Optional.empty());
+
+        assertThat(userService.getUserWithCards(2L)).isEmpty();
+    }
+
     @Test
     void getUserById_whenNotExists_shouldReturnEmpty() {
         given(userRepository.findByIdJPQL(2L)).willReturn(Optional.empty());
@@ -145,8 +276,38 @@ class UserServiceImplTest {
         verify(userRepository).findByIdJPQL(2L);
     }
 
+    @Test
+    void getUsersByIds_servesHitsFromCacheAndLoadsMissesInOneQuery() {
+        UserResponse bob = new UserResponse(2L, "Bob", "Builder", LocalDate.of(1985, 5, 5), "bob@example.com");
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
+        given(cacheBatchReader.getAll("user", Set.of(2L, 1L, 3L, 4L)))
+                .willReturn(Map.of(2L, new SimpleValueWrapper(bob), 4L, new SimpleValueWrapper(null)));
+        given(userRepository.findAllByIdIn(List.of(1L, 3L))).willReturn(List.of(sampleUser));
+        given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
+
+        List<UserResponse> result = userService.getUsersByIds(List.of(2L, 1L, 3L, 4L, 2L));
+
+        assertThat(result).containsExactly(bob, sampleResponse);
+        verify(cacheBatch).put("user", 1L, sampleResponse);
+        verify(cacheBatch).put("user", 3L, null);
+        verify(cacheBatch).execute();
+    }
+
+    @Test
+    void getUsersByIds_whenAllCached_doesNotQuery() {
+        given(cacheBatchReader.getAll("user", Set.of(1L)))
+                .willReturn(Map.of(1L, new SimpleValueWrapper(sampleResponse)));
+
+        assertThat(userService.getUsersByIds(List.of(1L))).containsExactly(sampleResponse);
+
+        verify(userRepository, never()).findAllByIdIn(any());
+        verify(cacheBatchWriter, never()).newBatch();
+    }
+
     @Test
     void getUserByEmail_whenFound_returnsResponse() {
+        given(userEmailFilter.mightContain("alice@example.com")).willReturn(true);
         given(userRepository.findByEmail("alice@example.com")).willReturn(Optional.of(sampleUser));
         given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
 
@@ -159,6 +320,7 @@ class UserServiceImplTest {
 
     @Test
     void getUserByEmail_whenNotFound_throwsNotFoundException() {
+        given(userEmailFilter.mightContain("missing@example.com")).willReturn(true);
         given(userRepository.findByEmail("missing@example.com")).willReturn(Optional.empty());
 
         Optional<UserResponse> user = userService.getUserByEmail("missing@example.com");
@@ -168,6 +330,15 @@ class UserServiceImplTest {
         verify(userRepository).findByEmail("missing@example.com");
     }
 
+    @Test
+    void getUserByEmail_whenFilterRulesEmailOut_skipsDatabase() {
+        given(userEmailFilter.mightContain("unknown@example.com")).willReturn(false);
+
+        assertThat(userService.getUserByEmail("unknown@example.com")).isEmpty();
+
+        verify(userRepository, never()).findByEmail(any());
+    }
+
     @Test
     void getAllUsers_returnsPagedResponses() {
         Pageable pageable = PageRequest.of(0, 10);
@@ -183,10 +354,77 @@ class UserServiceImplTest {
         verify(userRepository).findAll(pageable);
     }
 
+    @Test
+    void getUsersSlice_doesNotCount() {
+        Pageable pageable = PageRequest.of(0, 10);
+        given(userRepository.findAllBy(pageable)).willReturn(new SliceImpl<>(List.of(sampleUser), pageable, true));
+        given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
+
+        Slice<UserResponse> result = userService.getUsersSlice(pageable);
+
+        assertThat(result.getContent()).containsExactly(sampleResponse);
+        assertThat(result.hasNext()).isTrue();
+        verify(userRepository, never()).findAll(any(Pageable.class));
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void getAllUsersEstimated_neverReportsFewerRowsThanSeen() {
+        Pageable pageable = PageRequest.of(3, 1);
+        given(userRepository.findAllBy(pageable)).willReturn(new SliceImpl<>(List.of(sampleUser), pageable, true));
+        given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
+        given(userRepository.estimateCount()).willReturn(0L);
+
+        Page<UserResponse> result = userService.getAllUsersEstimated(pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.hasNext()).isTrue();
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void searchUsersByName_fetchesOneExtraRowToDetectNextSlice() {
+        User second = new User();
+        second.setId(2L);
+        given(userRepository.searchByName("ali", 10L, 2)).willReturn(List.of(sampleUser, second));
+        given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
+
+        Slice<UserResponse> result = userService.searchUsersByName("ali", PageRequest.of(10, 1));
+
+        assertThat(result.getContent()).containsExactly(sampleResponse);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.getNumber()).isEqualTo(10);
+    }
+
+    @Test
+    void getUsersAfter_whenMoreRowsExist_returnsNextCursor() {
+        User second = new User();
+        second.setId(2L);
+        given(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).willReturn(List.of(sampleUser, second));
+        given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
+
+        CursorPage<UserResponse> first = userService.getUsersAfter(null, 1);
+
+        assertThat(first.content()).containsExactly(sampleResponse);
+        assertThat(first.next()).isNotNull();
+
+        given(userRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(2))).willReturn(List.of());
+
+        CursorPage<UserResponse> last = userService.getUsersAfter(first.next(), 1);
+
+        assertThat(last.content()).isEmpty();
+        assertThat(last.next()).isNull();
+    }
+
+    @Test
+    void getUsersAfter_whenCursorIsMalformed_throws() {
+        assertThatThrownBy(() -> userService.getUsersAfter("not-a-cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
     @Test
     void updateUser_WhenValid_ShouldUpdateAndReturnResponse() {
-        given(userRepository.findByIdJPQL(1L)).willReturn(Optional.of(sampleUser));
-        given(userRepository.existsByEmail(updateDto.email())).willReturn(false);
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
 
         User updatedUser = new User();
         updatedUser.setId(1L);
@@ -195,16 +433,6 @@ class UserServiceImplTest {
         updatedUser.setBirthDate(LocalDate.of(1990, 1, 1));
         updatedUser.setEmail("alicia@example.com"); // updated
 
-        willAnswer(invocation -> {
-            UserUpdateDto dto = invocation.getArgument(0);
-            User u = invocation.getArgument(1);
-            if (dto.name() != null) u.setName(dto.name());
-            if (dto.surname() != null) u.setSurname(dto.surname());
-            if (dto.birthDate() != null) u.setBirthDate(dto.birthDate());
-            if (dto.email() != null) u.setEmail(dto.email());
-            return null;
-        }).given(userMapper).updateEntityFromDto(updateDto, sampleUser);
-
         UserResponse updatedUserResponse = new UserResponse(
                 1L,
                 "Alice",
@@ -212,69 +440,120 @@ class UserServiceImplTest {
                 LocalDate.of(1990, 1, 1),
                 "alicia@example.com");
 
-        given(userRepository.updateByIdNative(
-                eq(1L),
-                eq("Alice"),
-                eq("Wonders"),
-                eq(LocalDate.of(1990, 1, 1)),
-                eq("alicia@example.com")
-        )).willReturn(updatedUser);
-
+        given(userRepository.updateByIdNative(1L, null, "Wonders", LocalDate.of(1990, 1, 1), "alicia@example.com"))
+                .willReturn(Optional.of(new UpdatedUser(updatedUser, "alice@example.com")));
         given(userMapper.toUserResponse(updatedUser)).willReturn(updatedUserResponse);
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
+        givenTransactionsRunCallbacks();
 
         UserResponse result = userService.updateUser(1L, updateDto);
 
-        assertThat(result).isNotNull();
-        assertThat(result.name()).isEqualTo("Alice");
-        assertThat(result.surname()).isEqualTo("Wonders"); // sampleResponse stubbed
-        verify(userRepository).findByIdJPQL(1L);
-        verify(userRepository).existsByEmail("alicia@example.com");
-        verify(userMapper).updateEntityFromDto(updateDto, sampleUser);
-        verify(userRepository).updateByIdNative(1L, "Alice", "Wonders", LocalDate.of(1990, 1, 1), "alicia@example.com");
-        verify(userMapper).toUserResponse(updatedUser);
+        assertThat(result).isEqualTo(updatedUserResponse);
+        InOrder inOrder = inOrder(userEmailFilter, userRepository);
+        inOrder.verify(userEmailFilter).add("alicia@example.com");
+        inOrder.verify(userRepository)
+                .updateByIdNative(1L, null, "Wonders", LocalDate.of(1990, 1, 1), "alicia@example.com");
+        verifyNoMoreInteractions(userRepository);
+        verify(cacheBatch).put("user", 1L, updatedUserResponse);
+        verify(cacheBatch).evict("userWithCards", 1L);
+        verify(cacheBatch).evict("userByEmail", "alice@example.com");
+        verify(cacheBatch).put("userByEmail", "alicia@example.com", updatedUserResponse);
+        verify(cacheBatch).clear("users");
+        verify(cacheBatch).executeAfterCommit();
+    }
+
+    @Test
+    void updateUser_whenEmailIsUnchanged_keepsEmailEntryInsteadOfEvictingIt() {
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
+        UserUpdateDto renameOnly = new UserUpdateDto("Alicia", null, null, null);
+        given(userRepository.updateByIdNative(1L, "Alicia", null, null, null))
+                .willReturn(Optional.of(new UpdatedUser(sampleUser, "alice@example.com")));
+        given(userMapper.toUserResponse(sampleUser)).willReturn(sampleResponse);
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
+        givenTransactionsRunCallbacks();
+
+        userService.updateUser(1L, renameOnly);
+
+        verify(cacheBatch, never()).evict(eq("userByEmail"), any());
+        verify(cacheBatch).put("userByEmail", "alice@example.com", sampleResponse);
+        verify(cacheBatch).executeAfterCommit();
     }
 
     @Test
     void updateUser_WhenUserNotFound_ShouldThrowException() {
-        given(userRepository.findByIdJPQL(1L)).willReturn(Optional.empty());
+        given(userRepository.updateByIdNative(1L, null, "Wonders", LocalDate.of(1990, 1, 1), "alicia@example.com"))
+                .willReturn(Optional.empty());
+        givenTransactionsRunCallbacks();
 
         assertThatThrownBy(() -> userService.updateUser(1L, updateDto))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining("User not found with id 1");
 
-        verify(userRepository, never()).updateByIdNative(anyLong(), any(), any(), any(), any());
+        verify(cacheBatchWriter, never()).newBatch();
     }
 
     @Test
     void updateUser_WhenEmailAlreadyExists_ShouldThrowException() {
-        given(userRepository.findByIdJPQL(1L)).willReturn(Optional.of(sampleUser));
-        given(userRepository.existsByEmail(updateDto.email())).willReturn(true);
+        given(userRepository.updateByIdNative(1L, null, "Wonders", LocalDate.of(1990, 1, 1), "alicia@example.com"))
+                .willThrow(new DuplicateKeyException("duplicate key value violates unique constraint"));
+        givenTransactionsRunCallbacks();
 
         assertThatThrownBy(() -> userService.updateUser(1L, updateDto))
                 .isInstanceOf(EmailAlreadyExistsException.class)
                 .hasMessageContaining("Email alicia@example.com is already in use");
 
-        verify(userRepository, never()).updateByIdNative(anyLong(), any(), any(), any(), any());
+        verify(cacheBatchWriter, never()).newBatch();
     }
 
     @Test
-    void deleteUser_whenExists_deletes() {
-        given(userRepository.existsById(1L)).willReturn(true);
+    void deleteUser_whenExists_deletesAndEvictsEntriesAfterCommit() {
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
+        given(userRepository.deleteByIdNative(1L))
+                .willReturn(Optional.of(new DeletedUser("alice@example.com", List.of(10L, 11L))));
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
 
         userService.deleteUser(1L);
 
-        verify(userRepository).existsById(1L);
-        verify(userRepository).deleteByIdJPQL(1L);
+        verify(userRepository).deleteByIdNative(1L);
+        verifyNoMoreInteractions(userRepository);
+        verify(cacheBatch).evict("user", 1L);
+        verify(cacheBatch).evict("userByEmail", "alice@example.com");
+        verify(cacheBatch).evict("userCards", 1L);
+        verify(cacheBatch).evict("userWithCards", 1L);
+        verify(cacheBatch).evict("card", 10L);
+        verify(cacheBatch).evict("card", 11L);
+        verify(cacheBatch).clear("cards");
+        verify(cacheBatch).clear("users");
+        verify(cacheBatch).executeAfterCommit();
+    }
+
+    @Test
+    void deleteUser_whenUserHasNoCards_leavesCardPagesCached() {
+        CacheBatch cacheBatch = mock(CacheBatch.class, RETURNS_SELF);
+        given(userRepository.deleteByIdNative(1L))
+                .willReturn(Optional.of(new DeletedUser("alice@example.com", List.of())));
+        given(cacheBatchWriter.newBatch()).willReturn(cacheBatch);
+
+        userService.deleteUser(1L);
+
+        verify(cacheBatch, never()).clear("cards");
+        verify(cacheBatch).clear("users");
+        verify(cacheBatch).executeAfterCommit();
     }
 
     @Test
     void deleteUser_whenNotExists_throwsNotFoundException() {
-        given(userRepository.existsById(5L)).willReturn(false);
+        given(userRepository.deleteByIdNative(5L)).willReturn(Optional.empty());
 
         assertThatThrownBy(() -> userService.deleteUser(5L))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining("User not found with id 5");
 
-        verify(userRepository).existsById(5L);
+        verify(cacheBatchWriter, never()).newBatch();
+    }
+
+    private void givenTransactionsRunCallbacks() {
+        given(transactionOperations.execute(any())).willAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 }